@@ -0,0 +1,29 @@
+package dev.francode.ordersystem.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+@Configuration
+public class HttpCacheConfig {
+
+    // Listados: el ETag se calcula sobre el cuerpo de la página y un If-None-Match igual devuelve 304 sin cuerpo.
+    // Los detalles no pasan por aquí; calculan su ETag a partir de las fechas antes de cargar la entidad.
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> listingEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns(
+                "/api/products",
+                "/api/products/cursor",
+                "/api/products/facets",
+                "/api/products/trending",
+                "/api/categories",
+                "/api/orders",
+                "/api/v1/orders/customer",
+                "/api/v1/orders/admin",
+                "/api/v1/orders/admin/cursor");
+        registration.setName("listingEtagFilter");
+        return registration;
+    }
+}
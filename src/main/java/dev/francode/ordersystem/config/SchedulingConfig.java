@@ -0,0 +1,18 @@
+package dev.francode.ordersystem.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class SchedulingConfig {
+
+    // Planificador propio de las tareas @Scheduled, dimensionado con spring.task.scheduling.*. Sin él, al existir
+    // el del broker STOMP Boot no crea el suyo y todas las tareas compartirían el del broker: una reconstrucción
+    // del índice o de las facetas retrasaría el volcado de stock, el feed y los latidos.
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,66 @@
+package dev.francode.ordersystem.config.initializer;
+
+import dev.francode.ordersystem.entity.base.BaseEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Deja la tabla de secuencias por encima del mayor ID existente antes de atender peticiones.
+// Necesario al migrar tablas que venían usando AUTO_INCREMENT.
+@Component
+@RequiredArgsConstructor
+public class IdGeneratorInitializer implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorInitializer.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long nextValue = findMaxExistingId() + 1;
+
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + BaseEntity.ID_TABLE + " WHERE " + BaseEntity.ID_SEGMENT_COLUMN + " = ?",
+                Integer.class, BaseEntity.ID_SEGMENT);
+
+        if (rows == null || rows == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO " + BaseEntity.ID_TABLE + " (" + BaseEntity.ID_SEGMENT_COLUMN + ", "
+                            + BaseEntity.ID_VALUE_COLUMN + ") VALUES (?, ?)",
+                    BaseEntity.ID_SEGMENT, nextValue);
+        } else {
+            jdbcTemplate.update(
+                    "UPDATE " + BaseEntity.ID_TABLE + " SET " + BaseEntity.ID_VALUE_COLUMN + " = ? WHERE "
+                            + BaseEntity.ID_SEGMENT_COLUMN + " = ? AND " + BaseEntity.ID_VALUE_COLUMN + " < ?",
+                    nextValue, BaseEntity.ID_SEGMENT, nextValue);
+        }
+        log.info("Generador de IDs inicializado; siguiente valor mínimo: {}", nextValue);
+    }
+
+    private long findMaxExistingId() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            long max = 0;
+            for (EntityType<?> type : entityManager.getMetamodel().getEntities()) {
+                if (!BaseEntity.class.isAssignableFrom(type.getJavaType())) {
+                    continue;
+                }
+                Object value = entityManager.createQuery("select max(e.id) from " + type.getName() + " e")
+                        .getSingleResult();
+                if (value instanceof Number number) {
+                    max = Math.max(max, number.longValue());
+                }
+            }
+            return max;
+        } finally {
+            entityManager.close();
+        }
+    }
+}
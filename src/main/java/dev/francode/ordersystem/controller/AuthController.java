@@ -39,4 +39,13 @@ public class AuthController {
         RefreshTokenResponse response = authService.refreshToken(request);
         return ResponseEntity.ok(response);
     }
+
+    // Revoca el token de acceso de la petición y, si se envía, el refresh token del mismo usuario
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader("Authorization") String authorization,
+                                       @RequestBody(required = false) RefreshTokenRequest request) {
+        authService.logout(authorization.substring("Bearer ".length()),
+                request == null ? null : request.getRefreshToken());
+        return ResponseEntity.ok().build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package dev.francode.ordersystem.controller;
+
+import dev.francode.ordersystem.service.auth.PrincipalService;
+import dev.francode.ordersystem.service.interfaces.CatalogCacheService;
+import dev.francode.ordersystem.service.interfaces.SecondLevelCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CatalogCacheService catalogCacheService;
+    private final SecondLevelCacheService secondLevelCacheService;
+    private final PrincipalService principalService;
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("catalog", catalogCacheService.getStats());
+        stats.put("hibernate", secondLevelCacheService.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    // Tras cambiar el rol de un usuario o darlo de baja: sus tokens vigentes dejan de confiarse en los claims
+    @DeleteMapping("/principals/{email}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Void> invalidatePrincipal(@PathVariable String email) {
+        principalService.invalidate(email);
+        return ResponseEntity.ok().build();
+    }
+}
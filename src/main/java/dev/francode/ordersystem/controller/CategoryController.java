@@ -2,6 +2,7 @@ package dev.francode.ordersystem.controller;
 
 import dev.francode.ordersystem.dto.category.CategoryRequest;
 import dev.francode.ordersystem.dto.category.CategoryResponse;
+import dev.francode.ordersystem.dto.common.ResourceVersion;
 import dev.francode.ordersystem.service.interfaces.CategoryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +10,7 @@ import org.springframework.data.domain.*;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -40,14 +42,18 @@ public class CategoryController {
     }
 
     @GetMapping("/{categoryId}")
-    public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long categoryId) {
+    public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long categoryId, WebRequest request) {
+        ResourceVersion version = categoryService.getCategoryVersion(categoryId);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null; // 304 ya preparado
+        }
         CategoryResponse response = categoryService.getCategoryById(categoryId);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
     }
 
     @GetMapping
     public ResponseEntity<Page<CategoryResponse>> getAllCategories(Pageable pageable) {
         Page<CategoryResponse> categories = categoryService.getAllCategories(pageable);
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(categories);
     }
 }
@@ -1,24 +1,44 @@
 package dev.francode.ordersystem.controller;
 
+import dev.francode.ordersystem.dto.common.CursorPage;
+import dev.francode.ordersystem.dto.common.ResourceVersion;
 import dev.francode.ordersystem.dto.order.OrderFilter;
 import dev.francode.ordersystem.dto.order.OrderRequest;
 import dev.francode.ordersystem.dto.order.OrderResponse;
+import dev.francode.ordersystem.dto.order.OrderTicketResponse;
 import dev.francode.ordersystem.dto.order.OrderAdminFilter;
+import dev.francode.ordersystem.entity.enums.EExportFormat;
+import dev.francode.ordersystem.service.interfaces.IdempotencyService;
+import dev.francode.ordersystem.service.interfaces.OrderExportService;
+import dev.francode.ordersystem.service.interfaces.OrderIntakeService;
 import dev.francode.ordersystem.service.interfaces.OrderService;
+import dev.francode.ordersystem.service.interfaces.OrderTrackingService;
 import dev.francode.ordersystem.service.auth.UserDetailsImpl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
+
 @RestController
 @RequestMapping("/api/v1/orders")
 @RequiredArgsConstructor
@@ -26,15 +46,38 @@ import jakarta.validation.Valid;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final OrderIntakeService orderIntakeService;
+    private final OrderExportService orderExportService;
+    private final OrderTrackingService orderTrackingService;
 
     @PreAuthorize("hasAuthority('CLIENTE')")
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@RequestBody @Valid OrderRequest orderRequest,
-                                                     @AuthenticationPrincipal UserDetailsImpl userDetails) {
-        OrderResponse response = orderService.createOrder(orderRequest, userDetails.getId());
+    public ResponseEntity<?> createOrder(@RequestBody @Valid OrderRequest orderRequest,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                         @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        if (orderIntakeService.isAsync()) {
+            OrderTicketResponse ticket = orderIntakeService.submit("usuario-" + userDetails.getId(),
+                    userDetails.getId(), orderRequest, idempotencyKey);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ticket);
+        }
+
+        OrderResponse response = idempotencyService.execute("usuario-" + userDetails.getId(), idempotencyKey, orderRequest,
+                () -> orderService.createOrder(orderRequest, userDetails.getId()));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PreAuthorize("hasAuthority('CLIENTE')")
+    @GetMapping("/intake/{trackingId}")
+    public CompletableFuture<OrderTicketResponse> getOrderTicket(@PathVariable String trackingId,
+                                                                 @RequestParam(defaultValue = "false") boolean wait,
+                                                                 @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        String scope = "usuario-" + userDetails.getId();
+        return wait
+                ? orderIntakeService.awaitTicket(scope, trackingId)
+                : CompletableFuture.completedFuture(orderIntakeService.getTicket(scope, trackingId));
+    }
+
     @PreAuthorize("hasAnyAuthority('CLIENTE', 'ADMIN')")
     @PutMapping("/{orderId}")
     public ResponseEntity<OrderResponse> updateOrder(@PathVariable Long orderId,
@@ -48,7 +91,7 @@ public class OrderController {
     @PutMapping("/{orderId}/cancel")
     public ResponseEntity<Void> cancelOrder(@PathVariable Long orderId,
                                             @AuthenticationPrincipal UserDetailsImpl userDetails) {
-        orderService.cancelOrder(orderId, userDetails.getId());
+        orderService.cancelOrder(orderId, userDetails.getId(), userDetails.isAdmin());
         return ResponseEntity.ok().build();
     }
 
@@ -62,19 +105,65 @@ public class OrderController {
 
         Pageable pageable = PageRequest.of(page, size);
         Page<OrderResponse> orders = orderService.getOrdersByUser(userDetails.getId(), filter, pageable);
-        return ResponseEntity.ok(orders);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(orders);
+    }
+
+    // Cambios de estado de todos los pedidos del cliente (eventos "status"), en lugar de sondear cada detalle
+    @PreAuthorize("hasAuthority('CLIENTE')")
+    @GetMapping(value = "/customer/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter trackUserOrders(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return orderTrackingService.trackUserOrders(userDetails.getId());
     }
 
     @PreAuthorize("hasAuthority('ADMIN')")
     @GetMapping("/admin")
-    public ResponseEntity<Page<OrderResponse>> getAllOrders(
+    public ResponseEntity<Slice<OrderResponse>> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "exact") String count,
             @ModelAttribute OrderAdminFilter filter) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<OrderResponse> orders = orderService.getOrders(filter, pageable);
-        return ResponseEntity.ok(orders);
+        Slice<OrderResponse> orders = orderService.getOrders(filter, pageable, count);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(orders);
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/admin/cursor")
+    public ResponseEntity<CursorPage<OrderResponse>> getAllOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String direction,
+            @ModelAttribute OrderAdminFilter filter) {
+
+        CursorPage<OrderResponse> orders = orderService.getOrdersByCursor(filter, cursor, size, direction);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(orders);
+    }
+
+    // Se escribe en el hilo de la petición (no como StreamingResponseBody) para que un volcado largo
+    // no quede cortado por el timeout de las peticiones asíncronas
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/admin/export")
+    public void exportOrders(@RequestParam(defaultValue = "csv") String format,
+                             @RequestParam(defaultValue = "false") boolean gzip,
+                             @ModelAttribute OrderAdminFilter filter,
+                             HttpServletResponse response) throws IOException {
+        EExportFormat exportFormat = orderExportService.prepareExport(filter, format);
+
+        response.setContentType(exportFormat == EExportFormat.CSV ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"pedidos." + exportFormat.name().toLowerCase() + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream(), 64 * 1024) : response.getOutputStream();
+        orderExportService.exportOrders(filter, exportFormat, out);
+        if (out instanceof GZIPOutputStream gzipOut) {
+            gzipOut.finish();
+        }
     }
 
     @PreAuthorize("hasAnyAuthority('ADMIN')")
@@ -101,8 +190,20 @@ public class OrderController {
     @PreAuthorize("hasAnyAuthority('CLIENTE', 'ADMIN')")
     @GetMapping("/{orderId}")
     public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long orderId,
-                                                      @AuthenticationPrincipal UserDetailsImpl userDetails) {
-        OrderResponse response = orderService.getOrderById(orderId, userDetails.getId());
-        return ResponseEntity.ok(response);
+                                                      @AuthenticationPrincipal UserDetailsImpl userDetails,
+                                                      WebRequest request) {
+        ResourceVersion version = orderService.getOrderVersion(orderId, userDetails.getId(), userDetails.isAdmin());
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null; // 304 ya preparado: el pedido no se carga ni se mapea
+        }
+        OrderResponse response = orderService.getOrderById(orderId, userDetails.getId(), userDetails.isAdmin());
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(response);
+    }
+
+    @PreAuthorize("hasAnyAuthority('CLIENTE', 'ADMIN')")
+    @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter trackOrder(@PathVariable Long orderId,
+                                 @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return orderTrackingService.trackOrder(orderId, userDetails.getId(), userDetails.isAdmin());
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,25 @@
 package dev.francode.ordersystem.controller;
 
+import dev.francode.ordersystem.dto.common.CursorPage;
+import dev.francode.ordersystem.dto.common.ResourceVersion;
+import dev.francode.ordersystem.dto.product.ProductFacetsResponse;
 import dev.francode.ordersystem.dto.product.ProductFilter;
 import dev.francode.ordersystem.dto.product.ProductRequest;
 import dev.francode.ordersystem.dto.product.ProductResponse;
+import dev.francode.ordersystem.dto.product.TrendingProductResponse;
+import dev.francode.ordersystem.service.interfaces.ProductFacetService;
 import dev.francode.ordersystem.service.interfaces.ProductService;
+import dev.francode.ordersystem.service.interfaces.TrendingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 
 @RestController
@@ -19,6 +28,8 @@ import org.springframework.web.bind.annotation.*;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductFacetService productFacetService;
+    private final TrendingService trendingService;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasAnyAuthority('ADMIN')")
@@ -43,14 +54,42 @@ public class ProductController {
     }
 
     @GetMapping("/{productId}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long productId) {
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long productId, WebRequest request) {
+        ResourceVersion version = productService.getProductVersion(productId);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null; // 304 ya preparado: el producto no se carga ni se serializa
+        }
         ProductResponse response = productService.getProductById(productId);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
     }
 
     @GetMapping
-    public ResponseEntity<Page<ProductResponse>> getProducts(@Valid ProductFilter filter, Pageable pageable) {
-        Page<ProductResponse> products = productService.getProducts(filter, pageable);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<Slice<ProductResponse>> getProducts(@Valid ProductFilter filter, Pageable pageable,
+                                                              @RequestParam(defaultValue = "exact") String count) {
+        Slice<ProductResponse> products = productService.getProducts(filter, pageable, count);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(products);
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<ProductResponse>> getProductsByCursor(@Valid ProductFilter filter,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(defaultValue = "10") int size,
+                                                                           @RequestParam(required = false) String direction) {
+        CursorPage<ProductResponse> products = productService.getProductsByCursor(filter, cursor, size, direction);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(products);
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetsResponse> getProductFacets(@Valid ProductFilter filter) {
+        ProductFacetsResponse facets = productFacetService.getFacets(filter);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(facets);
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingProductResponse>> getTrendingProducts(@RequestParam(defaultValue = "day") String window,
+                                                                             @RequestParam(required = false) Long category,
+                                                                             @RequestParam(defaultValue = "10") int limit) {
+        List<TrendingProductResponse> trending = trendingService.getTrending(window, category, limit);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(trending);
     }
 }
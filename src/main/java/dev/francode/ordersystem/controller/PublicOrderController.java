@@ -1,35 +1,80 @@
 package dev.francode.ordersystem.controller;
 
+import dev.francode.ordersystem.dto.common.ResourceVersion;
 import dev.francode.ordersystem.dto.order.OrderFilter;
 import dev.francode.ordersystem.dto.order.OrderRequest;
 import dev.francode.ordersystem.dto.order.OrderResponse;
+import dev.francode.ordersystem.dto.order.OrderTicketResponse;
+import dev.francode.ordersystem.service.interfaces.IdempotencyService;
+import dev.francode.ordersystem.service.interfaces.OrderIntakeService;
 import dev.francode.ordersystem.service.interfaces.OrderService;
+import dev.francode.ordersystem.service.interfaces.OrderTrackingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class PublicOrderController {
 
+    // Mismo usuario por defecto que usa OrderServiceImpl para los pedidos públicos
+    private static final Long DEFAULT_USER_ID = 1L;
+    private static final String PUBLIC_SCOPE = "publico";
+
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final OrderIntakeService orderIntakeService;
+    private final OrderTrackingService orderTrackingService;
 
     @PostMapping
-    public OrderResponse createOrderWithDefaultUser(@Valid @RequestBody OrderRequest orderRequest) {
-        return orderService.createOrderWithDefaultUser(orderRequest);
+    public ResponseEntity<?> createOrderWithDefaultUser(@Valid @RequestBody OrderRequest orderRequest,
+                                                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (orderIntakeService.isAsync()) {
+            OrderTicketResponse ticket = orderIntakeService.submit(PUBLIC_SCOPE, DEFAULT_USER_ID, orderRequest, idempotencyKey);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ticket);
+        }
+
+        return ResponseEntity.ok(idempotencyService.execute(PUBLIC_SCOPE, idempotencyKey, orderRequest,
+                () -> orderService.createOrderWithDefaultUser(orderRequest)));
+    }
+
+    @GetMapping("/intake/{trackingId}")
+    public CompletableFuture<OrderTicketResponse> getOrderTicket(@PathVariable String trackingId,
+                                                                 @RequestParam(defaultValue = "false") boolean wait) {
+        return wait
+                ? orderIntakeService.awaitTicket(PUBLIC_SCOPE, trackingId)
+                : CompletableFuture.completedFuture(orderIntakeService.getTicket(PUBLIC_SCOPE, trackingId));
     }
 
     @GetMapping("/{orderId}")
-    public OrderResponse getOrderByIdPublic(@PathVariable Long orderId) {
-        return orderService.getOrderByIdPublic(orderId);
+    public ResponseEntity<OrderResponse> getOrderByIdPublic(@PathVariable Long orderId, WebRequest request) {
+        ResourceVersion version = orderService.getOrderVersionPublic(orderId);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null; // 304 ya preparado: el pedido no se carga ni se mapea
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(orderService.getOrderByIdPublic(orderId));
+    }
+
+    @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter trackOrderPublic(@PathVariable Long orderId) {
+        return orderTrackingService.trackOrder(orderId, DEFAULT_USER_ID, false);
     }
+
     @GetMapping
-    public Page<OrderResponse> getDefaultUserOrders(
+    public ResponseEntity<Page<OrderResponse>> getDefaultUserOrders(
             @Valid OrderFilter filter,
             Pageable pageable) {
-        return orderService.getDefaultUserOrders(filter, pageable);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(orderService.getDefaultUserOrders(filter, pageable));
     }
 }
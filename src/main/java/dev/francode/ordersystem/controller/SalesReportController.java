@@ -0,0 +1,48 @@
+package dev.francode.ordersystem.controller;
+
+import dev.francode.ordersystem.dto.report.*;
+import dev.francode.ordersystem.service.interfaces.SalesReportService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/reports/sales")
+@RequiredArgsConstructor
+public class SalesReportController {
+
+    private final SalesReportService salesReportService;
+
+    @GetMapping("/daily")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<List<DailySalesResponse>> getDailySales(@Valid SalesReportFilter filter) {
+        return ResponseEntity.ok(salesReportService.getDailySales(filter));
+    }
+
+    @GetMapping("/products")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<List<ProductSalesResponse>> getProductSales(@Valid SalesReportFilter filter,
+                                                                      @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(salesReportService.getProductSales(filter, limit));
+    }
+
+    @GetMapping("/categories")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<List<CategorySalesResponse>> getCategorySales(@Valid SalesReportFilter filter) {
+        return ResponseEntity.ok(salesReportService.getCategorySales(filter));
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<SalesRebuildResponse> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesReportService.rebuild(from, to));
+    }
+}
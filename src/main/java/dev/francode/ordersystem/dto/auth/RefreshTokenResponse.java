@@ -9,4 +9,6 @@ import lombok.*;
 @Builder
 public class RefreshTokenResponse {
     private String token;
+    // El refresh token usado queda revocado: el cliente debe guardar este
+    private String refreshToken;
 }
@@ -0,0 +1,7 @@
+package dev.francode.ordersystem.dto.common;
+
+import java.util.List;
+
+// Instantánea serializable de una página para la caché del catálogo (Page/Slice no se pueden deserializar)
+public record CachedPage<T>(List<T> content, long total, boolean hasNext, boolean counted) {
+}
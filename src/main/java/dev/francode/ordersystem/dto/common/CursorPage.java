@@ -0,0 +1,19 @@
+package dev.francode.ordersystem.dto.common;
+
+import lombok.*;
+
+import java.util.List;
+
+// Página por cursor: sin total ni número de página; nextCursor es null en la última página
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -0,0 +1,31 @@
+package dev.francode.ordersystem.dto.common;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+// Validadores HTTP de un recurso (ETag fuerte y Last-Modified), calculados sin cargar ni mapear la entidad.
+// lastModified es -1 cuando la fecha no refleja todos los cambios de la representación.
+public record ResourceVersion(String etag, long lastModified) {
+
+    // El ETag concatena todo lo que puede cambiar la respuesta: fechas de la entidad y de sus hijos, recuentos, stock...
+    public static ResourceVersion of(String resource, Long id, boolean withLastModified, Object... parts) {
+        StringJoiner etag = new StringJoiner("-", "\"", "\"").add(resource).add(String.valueOf(id));
+        long lastModified = -1;
+        for (Object part : parts) {
+            if (part instanceof LocalDateTime timestamp) {
+                long millis = toMillis(timestamp);
+                lastModified = Math.max(lastModified, millis);
+                etag.add(Long.toHexString(millis));
+            } else {
+                etag.add(Objects.toString(part, "0"));
+            }
+        }
+        return new ResourceVersion(etag.toString(), withLastModified ? lastModified : -1);
+    }
+
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
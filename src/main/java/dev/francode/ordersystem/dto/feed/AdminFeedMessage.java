@@ -0,0 +1,12 @@
+package dev.francode.ordersystem.dto.feed;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Un mensaje por ventana con todo lo confirmado en ella; no se envía nada si la ventana está vacía
+public record AdminFeedMessage(
+        LocalDateTime publishedAt,
+        List<OrderFeedEvent> orders,
+        List<LowStockEvent> lowStock
+) {
+}
@@ -0,0 +1,5 @@
+package dev.francode.ordersystem.dto.feed;
+
+// El producto ha bajado del umbral de stock bajo desde la última publicación
+public record LowStockEvent(Long productId, String productName, int stock) {
+}
@@ -0,0 +1,21 @@
+package dev.francode.ordersystem.dto.feed;
+
+import dev.francode.ordersystem.entity.enums.EStatusOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Último estado conocido del pedido dentro de la ventana; created indica que el alta cae en la misma ventana
+public record OrderFeedEvent(
+        Long orderId,
+        Long userId,
+        EStatusOrder status,
+        BigDecimal total,
+        LocalDateTime date,
+        boolean created
+) {
+
+    public OrderFeedEvent mergedWith(OrderFeedEvent later) {
+        return new OrderFeedEvent(orderId, userId, later.status(), later.total(), date, created || later.created());
+    }
+}
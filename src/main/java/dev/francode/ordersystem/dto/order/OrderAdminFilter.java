@@ -27,5 +27,15 @@ public class OrderAdminFilter {
     public boolean isDateRangeValid() {
         return (startDate == null || endDate == null || !startDate.isAfter(endDate));
     }
+
+    // Ver PageCountService.count
+    public String countKey() {
+        StringBuilder key = new StringBuilder();
+        if (userId != null) key.append("u=").append(userId).append(';');
+        if (status != null) key.append("s=").append(status.trim().toUpperCase()).append(';');
+        if (startDate != null) key.append("from=").append(startDate).append(';');
+        if (endDate != null) key.append("to=").append(endDate).append(';');
+        return key.toString();
+    }
 }
 
@@ -0,0 +1,22 @@
+package dev.francode.ordersystem.dto.order;
+
+import dev.francode.ordersystem.entity.enums.EStatusOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Una línea de pedido con los datos de su pedido, tal como sale del cursor de exportación (sin entidades)
+public record OrderExportRow(
+        Long orderId,
+        LocalDateTime date,
+        EStatusOrder status,
+        BigDecimal total,
+        Long userId,
+        String userEmail,
+        Long productId,
+        String productName,
+        Integer quantity,
+        BigDecimal price,
+        BigDecimal subTotal
+) {
+}
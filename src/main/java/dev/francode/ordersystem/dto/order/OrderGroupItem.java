@@ -0,0 +1,15 @@
+package dev.francode.ordersystem.dto.order;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderGroupItem {
+
+    private OrderRequest request;
+
+    private Long userId;
+}
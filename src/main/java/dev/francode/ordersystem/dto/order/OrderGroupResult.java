@@ -0,0 +1,19 @@
+package dev.francode.ordersystem.dto.order;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderGroupResult {
+
+    private OrderResponse order;
+
+    private String error;
+
+    public boolean isSuccess() {
+        return order != null;
+    }
+}
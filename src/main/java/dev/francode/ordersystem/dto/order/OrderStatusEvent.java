@@ -0,0 +1,9 @@
+package dev.francode.ordersystem.dto.order;
+
+import dev.francode.ordersystem.entity.enums.EStatusOrder;
+
+import java.time.LocalDateTime;
+
+// Evento "status" de los flujos SSE de seguimiento
+public record OrderStatusEvent(Long orderId, EStatusOrder status, LocalDateTime changedAt) {
+}
@@ -0,0 +1,7 @@
+package dev.francode.ordersystem.dto.order;
+
+import dev.francode.ordersystem.entity.enums.EStatusOrder;
+
+// Dueño y estado del pedido, lo único que necesita el seguimiento para abrir un flujo
+public record OrderStatusView(Long userId, EStatusOrder status) {
+}
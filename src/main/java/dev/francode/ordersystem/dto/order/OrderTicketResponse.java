@@ -0,0 +1,19 @@
+package dev.francode.ordersystem.dto.order;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderTicketResponse {
+
+    private String trackingId;
+
+    private String status;
+
+    private OrderResponse order;
+
+    private String message;
+}
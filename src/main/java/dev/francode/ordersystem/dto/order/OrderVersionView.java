@@ -0,0 +1,14 @@
+package dev.francode.ordersystem.dto.order;
+
+import java.time.LocalDateTime;
+
+// Lo que puede cambiar el detalle de un pedido, leído en una sola consulta agregada.
+// Las líneas se editan sin tocar siempre el pedido y la respuesta incluye el nombre de cada producto.
+public record OrderVersionView(
+        Long userId,
+        LocalDateTime updatedAt,
+        LocalDateTime linesUpdatedAt,
+        LocalDateTime productsUpdatedAt,
+        Long lines
+) {
+}
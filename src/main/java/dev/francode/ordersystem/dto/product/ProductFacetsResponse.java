@@ -0,0 +1,24 @@
+package dev.francode.ordersystem.dto.product;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Recuentos del catálogo para un filtro. Cada faceta ignora su propio criterio (las categorías no aplican
+// "category" ni los rangos el precio) para que el escaparate pueda mostrar las alternativas a la selección actual.
+public record ProductFacetsResponse(
+        long total,
+        List<CategoryCount> categories,
+        List<BrandCount> brands,
+        List<PriceRangeCount> priceRanges
+) {
+
+    public record CategoryCount(Long categoryId, String categoryName, long count) {
+    }
+
+    public record BrandCount(String brandName, long count) {
+    }
+
+    // "to" es exclusivo y null en el último rango
+    public record PriceRangeCount(BigDecimal from, BigDecimal to, long count) {
+    }
+}
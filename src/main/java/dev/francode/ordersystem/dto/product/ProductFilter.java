@@ -26,4 +26,14 @@ public class ProductFilter {
     private BigDecimal maxprice;
 
     private Long category;
+
+    // Ver PageCountService.count
+    public String countKey() {
+        StringBuilder key = new StringBuilder();
+        if (search != null && !search.trim().isEmpty()) key.append("q=").append(search.trim().toLowerCase()).append(';');
+        if (minprice != null) key.append("min=").append(minprice.stripTrailingZeros().toPlainString()).append(';');
+        if (maxprice != null) key.append("max=").append(maxprice.stripTrailingZeros().toPlainString()).append(';');
+        if (category != null) key.append("c=").append(category).append(';');
+        return key.toString();
+    }
 }
@@ -0,0 +1,7 @@
+package dev.francode.ordersystem.dto.product;
+
+public record ProductNameView(
+        Long id,
+        String name
+) {
+}
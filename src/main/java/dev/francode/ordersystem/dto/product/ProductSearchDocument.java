@@ -0,0 +1,15 @@
+package dev.francode.ordersystem.dto.product;
+
+import java.math.BigDecimal;
+
+// Campos del catálogo que necesitan los índices en memoria (búsqueda y facetas)
+public record ProductSearchDocument(
+        Long id,
+        String name,
+        String brandName,
+        String description,
+        Long categoryId,
+        String categoryName,
+        BigDecimal price
+) {
+}
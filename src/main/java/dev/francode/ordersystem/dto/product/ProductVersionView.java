@@ -0,0 +1,14 @@
+package dev.francode.ordersystem.dto.product;
+
+import java.time.LocalDateTime;
+
+// Lo que puede cambiar el detalle de un producto, leído en una sola consulta agregada.
+// El stock va aparte de las fechas: las reservas lo modifican por JDBC sin tocar fecha_actualizacion.
+public record ProductVersionView(
+        LocalDateTime updatedAt,
+        LocalDateTime categoryUpdatedAt,
+        LocalDateTime imagesUpdatedAt,
+        Long images,
+        Integer stock
+) {
+}
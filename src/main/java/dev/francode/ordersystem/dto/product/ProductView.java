@@ -0,0 +1,16 @@
+package dev.francode.ordersystem.dto.product;
+
+import java.math.BigDecimal;
+
+// Proyección de solo lectura del catálogo: se construye directamente desde la consulta, sin entidades gestionadas
+public record ProductView(
+        Long id,
+        String name,
+        String description,
+        BigDecimal price,
+        BigDecimal priceDiscount,
+        Integer stock,
+        String brandName,
+        String categoryName
+) {
+}
@@ -0,0 +1,9 @@
+package dev.francode.ordersystem.dto.product;
+
+// units es una estimación (count-min): puede sobrar algo, nunca faltar
+public record TrendingProductResponse(
+        Long productId,
+        String productName,
+        long units
+) {
+}
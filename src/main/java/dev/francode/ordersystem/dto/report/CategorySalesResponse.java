@@ -0,0 +1,13 @@
+package dev.francode.ordersystem.dto.report;
+
+import java.math.BigDecimal;
+
+// orders = pedidos con al menos un producto de la categoría
+public record CategorySalesResponse(
+        Long categoryId,
+        String categoryName,
+        Long orders,
+        Long units,
+        BigDecimal revenue
+) {
+}
@@ -0,0 +1,12 @@
+package dev.francode.ordersystem.dto.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailySalesResponse(
+        LocalDate date,
+        Long orders,
+        Long units,
+        BigDecimal revenue
+) {
+}
@@ -0,0 +1,19 @@
+package dev.francode.ordersystem.dto.report;
+
+import dev.francode.ordersystem.entity.enums.EStatusOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Lo que un pedido aporta a los resúmenes en un momento dado; el delta de un cambio es "después - antes"
+public record OrderSalesSnapshot(
+        LocalDate date,
+        EStatusOrder status,
+        BigDecimal total,
+        List<Line> lines
+) {
+
+    public record Line(Long productId, Long categoryId, int quantity, BigDecimal subTotal) {
+    }
+}
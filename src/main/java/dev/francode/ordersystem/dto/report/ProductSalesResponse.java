@@ -0,0 +1,13 @@
+package dev.francode.ordersystem.dto.report;
+
+import java.math.BigDecimal;
+
+// orders = pedidos que incluyen el producto; revenue = suma de los subtotales de sus líneas
+public record ProductSalesResponse(
+        Long productId,
+        String productName,
+        Long orders,
+        Long units,
+        BigDecimal revenue
+) {
+}
@@ -0,0 +1,11 @@
+package dev.francode.ordersystem.dto.report;
+
+import java.time.LocalDate;
+
+public record SalesRebuildResponse(
+        LocalDate from,
+        LocalDate to,
+        int chunks,
+        long elapsedMs
+) {
+}
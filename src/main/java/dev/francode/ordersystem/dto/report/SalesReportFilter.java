@@ -0,0 +1,33 @@
+package dev.francode.ordersystem.dto.report;
+
+import dev.francode.ordersystem.entity.enums.EStatusOrder;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesReportFilter {
+
+    @NotNull(message = "La fecha de inicio es obligatoria.")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @NotNull(message = "La fecha de fin es obligatoria.")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    // Sin estado se suman todos
+    private EStatusOrder status;
+
+    public boolean isDateRangeValid() {
+        return from == null || to == null || !from.isAfter(to);
+    }
+}
@@ -3,6 +3,8 @@ package dev.francode.ordersystem.entity;
 import dev.francode.ordersystem.entity.base.BaseEntity;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
@@ -12,6 +14,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "Categorias")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categorias")
 public class Category extends BaseEntity<Long> {
 
     @Column(name = "nombre", nullable = false, unique = true)
@@ -0,0 +1,28 @@
+package dev.francode.ordersystem.entity;
+
+import dev.francode.ordersystem.entity.base.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "Pedidos_Idempotencia")
+public class IdempotencyRecord extends BaseEntity<Long> {
+
+    @Column(name = "clave", nullable = false, unique = true, length = 150)
+    private String idempotencyKey;
+
+    @Column(name = "id_pedido", nullable = false)
+    private Long orderId;
+
+    // SHA-256 del cuerpo de la petición; nula en registros anteriores a esta columna (no se comprueba)
+    @Column(name = "huella_peticion", length = 64)
+    private String requestFingerprint;
+
+    @Lob
+    @Column(name = "respuesta", nullable = false)
+    private String response;
+}
@@ -14,7 +14,10 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "Pedidos")
+@Table(name = "Pedidos", indexes = {
+        @Index(name = "idx_pedidos_fecha_id", columnList = "fecha, id"),
+        @Index(name = "idx_pedidos_usuario_fecha_id", columnList = "id_usuario, fecha, id")
+})
 public class Order extends BaseEntity<Long> {
 
     @ManyToOne
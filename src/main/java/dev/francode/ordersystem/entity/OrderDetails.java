@@ -30,4 +30,9 @@ public class OrderDetails extends BaseEntity<Long> {
 
     @Column(name = "sub_total", nullable = false, precision = 10, scale = 2)
     private BigDecimal subTotal;
+
+    // Categoría del producto al añadir la línea; los resúmenes de ventas no cambian si luego se recategoriza.
+    // Nula en líneas anteriores a esta columna: se usa la categoría actual del producto
+    @Column(name = "id_categoria")
+    private Long categoryId;
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package dev.francode.ordersystem.entity;
+
+import dev.francode.ordersystem.entity.base.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Invalidaciones de usuario (cambio de rol o baja): los tokens emitidos antes de invalidado_en dejan de confiarse
+// en sus claims. La fila sobra cuando expira el token más largo emitido antes de la invalidación
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "Usuarios_Invalidados", indexes = {
+        @Index(name = "idx_usuarios_invalidados_fecha_creacion", columnList = "fecha_creacion")
+})
+public class PrincipalInvalidation extends BaseEntity<Long> {
+
+    @Column(name = "correo", nullable = false)
+    private String email;
+
+    @Column(name = "invalidado_en", nullable = false)
+    private LocalDateTime invalidatedAt;
+
+    @Column(name = "expira_en", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -3,6 +3,8 @@ package dev.francode.ordersystem.entity;
 import dev.francode.ordersystem.entity.base.BaseEntity;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -12,7 +14,9 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "Productos")
+@Table(name = "Productos", indexes = {
+        @Index(name = "idx_productos_precio_id", columnList = "precio, id")
+})
 public class Product extends BaseEntity<Long> {
 
     @Column(name = "nombre", nullable = false, unique = true)
@@ -37,6 +41,8 @@ public class Product extends BaseEntity<Long> {
     @JoinColumn(name = "id_categoria", nullable = false)
     private Category category;
 
+    // Solo se cachea la colección de imágenes: el stock del producto se modifica por JDBC
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "productos-imagenes")
     private List<Image> images;
 }
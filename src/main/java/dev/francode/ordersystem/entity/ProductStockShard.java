@@ -0,0 +1,38 @@
+package dev.francode.ordersystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+// Fragmentos de stock de los productos "calientes": el stock real es Productos.stock + SUM(stock)
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "Productos_Stock_Fragmentos")
+@IdClass(ProductStockShard.ShardId.class)
+public class ProductStockShard {
+
+    @Id
+    @Column(name = "id_producto")
+    private Long productId;
+
+    @Id
+    @Column(name = "fragmento")
+    private Integer shard;
+
+    @Column(name = "stock", nullable = false)
+    private Integer stock;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class ShardId implements Serializable {
+        private Long productId;
+        private Integer shard;
+    }
+}
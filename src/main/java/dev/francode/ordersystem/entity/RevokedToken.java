@@ -0,0 +1,25 @@
+package dev.francode.ordersystem.entity;
+
+import dev.francode.ordersystem.entity.base.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Tokens JWT revocados (logout o refresh ya rotado); la fila sobra en cuanto el token expira
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "Tokens_Revocados", indexes = {
+        @Index(name = "idx_tokens_revocados_fecha_creacion", columnList = "fecha_creacion")
+})
+public class RevokedToken extends BaseEntity<Long> {
+
+    @Column(name = "jti", nullable = false, unique = true, length = 36)
+    private String jti;
+
+    @Column(name = "expira_en", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,61 @@
+package dev.francode.ordersystem.entity;
+
+import dev.francode.ordersystem.entity.enums.ESalesDimension;
+import dev.francode.ordersystem.entity.enums.EStatusOrder;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Resumen de ventas por día y estado del pedido: el total del día (referencia 0), cada producto y cada categoría.
+// Se mantiene con deltas en la misma transacción que el pedido y se puede recalcular desde Pedidos.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "Ventas_Resumen_Diario")
+@IdClass(SalesRollup.RollupId.class)
+public class SalesRollup {
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate date;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", length = 20)
+    private EStatusOrder status;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", length = 20)
+    private ESalesDimension dimension;
+
+    @Id
+    @Column(name = "id_referencia")
+    private Long referenceId;
+
+    @Column(name = "pedidos", nullable = false)
+    private Long orders;
+
+    @Column(name = "unidades", nullable = false)
+    private Long units;
+
+    @Column(name = "ingresos", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class RollupId implements Serializable {
+        private LocalDate date;
+        private EStatusOrder status;
+        private ESalesDimension dimension;
+        private Long referenceId;
+    }
+}
@@ -18,8 +18,22 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public abstract class BaseEntity<T> {
 
+    // Tabla de secuencias compartida; con pooled-lo cada viaje a la BD reserva un bloque de IDs
+    // y Hibernate puede agrupar los INSERT en lotes JDBC (IDENTITY lo impide)
+    public static final String ID_TABLE = "secuencias_id";
+    public static final String ID_SEGMENT_COLUMN = "entidad";
+    public static final String ID_VALUE_COLUMN = "siguiente_valor";
+    public static final String ID_SEGMENT = "entidades";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "pooled_ids")
+    @TableGenerator(name = "pooled_ids",
+            table = ID_TABLE,
+            pkColumnName = ID_SEGMENT_COLUMN,
+            valueColumnName = ID_VALUE_COLUMN,
+            pkColumnValue = ID_SEGMENT,
+            allocationSize = ID_ALLOCATION_SIZE)
     private T id;
 
     @CreatedDate
@@ -0,0 +1,6 @@
+package dev.francode.ordersystem.entity.enums;
+
+public enum EExportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,7 @@
+package dev.francode.ordersystem.entity.enums;
+
+public enum ESalesDimension {
+    DIA,
+    PRODUCTO,
+    CATEGORIA
+}
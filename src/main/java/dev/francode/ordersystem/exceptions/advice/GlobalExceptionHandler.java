@@ -2,8 +2,10 @@ package dev.francode.ordersystem.exceptions.advice;
 
 import dev.francode.ordersystem.exceptions.DTOs.ApiResponseDTO;
 import dev.francode.ordersystem.exceptions.DTOs.ValidationErrorDTO;
+import dev.francode.ordersystem.exceptions.custom.IdempotencyConflictException;
 import dev.francode.ordersystem.exceptions.custom.InvalidPageableException;
 import dev.francode.ordersystem.exceptions.custom.ResourceNotFoundException;
+import dev.francode.ordersystem.exceptions.custom.ServiceBusyException;
 import dev.francode.ordersystem.exceptions.custom.ValidationException;
 import org.hibernate.TypeMismatchException;
 import org.slf4j.Logger;
@@ -11,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -74,6 +77,36 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    // 422 - Idempotency-Key reutilizada con otro cuerpo de petición
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ApiResponseDTO> handleIdempotencyConflictException(IdempotencyConflictException ex) {
+        logger.warn("Clave de idempotencia reutilizada: {}", ex.getMessage());
+
+        ApiResponseDTO response = new ApiResponseDTO(
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                ex.getMessage(),
+                "ERR_422_IDEMPOTENCY_KEY_REUSED"
+        );
+
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    }
+
+    // 503 - Capacidad agotada (colas llenas), el cliente debe reintentar
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponseDTO> handleServiceBusyException(ServiceBusyException ex) {
+        logger.warn("Servicio saturado: {}", ex.getMessage());
+
+        ApiResponseDTO response = new ApiResponseDTO(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getMessage(),
+                "ERR_503_SERVICE_BUSY"
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
     // 400 - Validación de campos (DTO)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ValidationErrorDTO> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex) {
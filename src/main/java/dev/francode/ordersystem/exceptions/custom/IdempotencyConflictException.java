@@ -0,0 +1,7 @@
+package dev.francode.ordersystem.exceptions.custom;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
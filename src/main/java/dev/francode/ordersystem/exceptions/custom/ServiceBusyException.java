@@ -0,0 +1,7 @@
+package dev.francode.ordersystem.exceptions.custom;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
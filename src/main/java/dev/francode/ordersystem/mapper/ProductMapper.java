@@ -2,6 +2,7 @@ package dev.francode.ordersystem.mapper;
 
 import dev.francode.ordersystem.dto.product.ProductRequest;
 import dev.francode.ordersystem.dto.product.ProductResponse;
+import dev.francode.ordersystem.dto.product.ProductView;
 import dev.francode.ordersystem.entity.Image;
 import dev.francode.ordersystem.entity.Product;
 import org.mapstruct.*;
@@ -12,13 +13,19 @@ import java.util.stream.Collectors;
 @Mapper(componentModel = "spring")
 public interface ProductMapper {
 
+    String STORE_NAME = "Hotel_Formula_1";
+
     Product toEntity(ProductRequest request);
 
     @Mapping(source = "category.name", target = "categoryName")
-    @Mapping(target = "storeName", constant = "Hotel_Formula_1")
+    @Mapping(target = "storeName", constant = STORE_NAME)
     @Mapping(source = "images", target = "images", qualifiedByName = "mapImageUrls")
     ProductResponse toResponse(Product product);
 
+    @Mapping(target = "storeName", constant = STORE_NAME)
+    @Mapping(target = "images", source = "images")
+    ProductResponse toResponse(ProductView view, List<String> images);
+
     @Named("mapImageUrls")
     default List<String> mapImageUrls(List<Image> images) {
         if (images == null) return null;
@@ -0,0 +1,19 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByIdempotencyKey(String key);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :limit")
+    int deleteCreatedBefore(@Param("limit") LocalDateTime limit);
+}
@@ -0,0 +1,32 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.dto.order.OrderExportRow;
+import dev.francode.ordersystem.entity.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+public interface OrderQueryRepository {
+
+    // Primera fase del listado: pagina solo los IDs que cumplen el filtro, en el orden pedido
+    Page<Long> findIds(Specification<Order> spec, Pageable pageable);
+
+    // Igual que findIds, con el total resuelto por el llamador (cacheado o estimado)
+    Page<Long> findIds(Specification<Order> spec, Pageable pageable, LongSupplier total);
+
+    // Sin total: se lee una fila de más para saber si hay página siguiente
+    Slice<Long> findIdSlice(Specification<Order> spec, Pageable pageable);
+
+    // Paginación por cursor: hasta "limit" IDs en el orden indicado, sin OFFSET ni COUNT
+    List<Long> findIds(Specification<Order> spec, Sort sort, int limit);
+
+    // Exportación: una fila por línea, ordenadas por pedido, leídas en streaming con un cursor de solo avance.
+    // Requiere una transacción abierta y cerrar el Stream; mientras tanto la conexión no admite otras consultas.
+    Stream<OrderExportRow> streamExportRows(Specification<Order> spec);
+}
@@ -0,0 +1,127 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.dto.order.OrderExportRow;
+import dev.francode.ordersystem.entity.Order;
+import dev.francode.ordersystem.entity.OrderDetails;
+import dev.francode.ordersystem.entity.Product;
+import dev.francode.ordersystem.entity.UserApp;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class OrderQueryRepositoryImpl implements OrderQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Integer.MIN_VALUE por defecto (streaming de Connector/J); H2 solo admite valores positivos
+    @Value("${francode.app.orders.export.fetch-size}")
+    private int exportFetchSize;
+
+    @Override
+    public Page<Long> findIds(Specification<Order> spec, Pageable pageable) {
+        return findIds(spec, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Page<Long> findIds(Specification<Order> spec, Pageable pageable, LongSupplier total) {
+        List<Long> ids = pageIds(spec, pageable, 0);
+        // El total solo se pide cuando la página no permite deducirlo
+        return PageableExecutionUtils.getPage(ids, pageable, total);
+    }
+
+    @Override
+    public Slice<Long> findIdSlice(Specification<Order> spec, Pageable pageable) {
+        List<Long> ids = pageIds(spec, pageable, 1);
+        boolean hasNext = pageable.isPaged() && ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? ids.subList(0, pageable.getPageSize()) : ids, pageable, hasNext);
+    }
+
+    @Override
+    public List<Long> findIds(Specification<Order> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Order> root = query.from(Order.class);
+        query.select(root.get("id")).where(spec.toPredicate(root, query, cb));
+        query.orderBy(toOrders(sort, root, cb));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<OrderExportRow> streamExportRows(Specification<Order> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<OrderExportRow> query = cb.createQuery(OrderExportRow.class);
+        Root<Order> root = query.from(Order.class);
+        Join<Order, UserApp> user = root.join("user");
+        Join<Order, OrderDetails> line = root.join("OrderDetails");
+        Join<OrderDetails, Product> product = line.join("product");
+        query.select(cb.construct(OrderExportRow.class,
+                        root.get("id"),
+                        root.get("date"),
+                        root.get("status"),
+                        root.get("total"),
+                        user.get("id"),
+                        user.get("email"),
+                        product.get("id"),
+                        product.get("name"),
+                        line.get("quantity"),
+                        line.get("price"),
+                        line.get("subTotal")))
+                .where(spec.toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("id")), cb.asc(line.get("id")));
+
+        // Proyección sin entidades: el contexto de persistencia no crece con el número de filas.
+        // Integer.MIN_VALUE es el modo streaming de Connector/J (fila a fila, sin cargar todo el resultado);
+        // no requiere useCursorFetch, que convertiría todas las sentencias de la aplicación en preparadas en el servidor
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private List<Long> pageIds(Specification<Order> spec, Pageable pageable, int extraRows) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Order> root = query.from(Order.class);
+        query.select(root.get("id")).where(spec.toPredicate(root, query, cb));
+        // El ID desempata para que el orden entre páginas sea estable
+        query.orderBy(toOrders(pageable.getSort().and(Sort.by("id")), root, cb));
+
+        TypedQuery<Long> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize() + extraRows);
+        }
+        return typedQuery.getResultList();
+    }
+
+    private long count(Specification<Order> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Order> root = query.from(Order.class);
+        query.select(cb.count(root)).where(spec.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
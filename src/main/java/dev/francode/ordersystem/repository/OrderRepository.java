@@ -1,10 +1,35 @@
 package dev.francode.ordersystem.repository;
 
+import dev.francode.ordersystem.dto.order.OrderStatusView;
+import dev.francode.ordersystem.dto.order.OrderVersionView;
 import dev.francode.ordersystem.entity.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
-}
 
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>,
+        OrderQueryRepository {
+
+    // Segunda fase del listado: los pedidos de la página con usuario, líneas y productos en una sola consulta
+    @Query("select distinct o from Order o join fetch o.user "
+            + "left join fetch o.OrderDetails d left join fetch d.product p left join fetch p.category "
+            + "where o.id in :ids")
+    List<Order> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Validadores HTTP del detalle sin cargar el pedido ni sus líneas
+    @Query("select new dev.francode.ordersystem.dto.order.OrderVersionView("
+            + "u.id, o.updatedAt, max(d.updatedAt), max(p.updatedAt), count(d)) "
+            + "from Order o join o.user u left join o.OrderDetails d left join d.product p "
+            + "where o.id = :id group by u.id, o.id, o.updatedAt")
+    Optional<OrderVersionView> findVersionView(@Param("id") Long orderId);
+
+    @Query("select new dev.francode.ordersystem.dto.order.OrderStatusView(o.user.id, o.status) "
+            + "from Order o where o.id = :id")
+    Optional<OrderStatusView> findStatusView(@Param("id") Long orderId);
+}
@@ -0,0 +1,22 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.entity.PrincipalInvalidation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PrincipalInvalidationRepository extends JpaRepository<PrincipalInvalidation, Long> {
+
+    List<PrincipalInvalidation> findByExpiresAtAfter(LocalDateTime now);
+
+    // Invalidaciones recientes, también las hechas por otras instancias
+    List<PrincipalInvalidation> findByCreatedAtAfter(LocalDateTime since);
+
+    @Modifying
+    @Query("delete from PrincipalInvalidation i where i.expiresAt < :limit")
+    int deleteExpiredBefore(@Param("limit") LocalDateTime limit);
+}
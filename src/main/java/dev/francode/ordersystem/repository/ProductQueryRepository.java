@@ -0,0 +1,37 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.dto.product.ProductView;
+import dev.francode.ordersystem.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+public interface ProductQueryRepository {
+
+    Page<ProductView> findViews(Specification<Product> spec, Pageable pageable);
+
+    // Igual que findViews, con el total resuelto por el llamador (cacheado o estimado)
+    Page<ProductView> findViews(Specification<Product> spec, Pageable pageable, LongSupplier total);
+
+    // Sin total: se lee una fila de más para saber si hay página siguiente
+    Slice<ProductView> findViewSlice(Specification<Product> spec, Pageable pageable);
+
+    // Paginación por cursor: hasta "limit" filas en el orden indicado, sin OFFSET ni COUNT
+    List<ProductView> findViews(Specification<Product> spec, Sort sort, int limit);
+
+    Optional<ProductView> findViewById(Long productId);
+
+    // Solo los IDs que cumplen la especificación, sin orden ni paginación
+    List<Long> findIds(Specification<Product> spec);
+
+    // URLs de imagen de varios productos en una sola consulta, agrupadas por producto
+    Map<Long, List<String>> findImageUrls(Collection<Long> productIds);
+}
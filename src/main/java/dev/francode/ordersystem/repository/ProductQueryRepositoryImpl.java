@@ -0,0 +1,129 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.dto.product.ProductView;
+import dev.francode.ordersystem.entity.Category;
+import dev.francode.ordersystem.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.*;
+import java.util.function.LongSupplier;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class ProductQueryRepositoryImpl implements ProductQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProductView> findViews(Specification<Product> spec, Pageable pageable) {
+        return findViews(spec, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Page<ProductView> findViews(Specification<Product> spec, Pageable pageable, LongSupplier total) {
+        return PageableExecutionUtils.getPage(pageViews(spec, pageable, 0), pageable, total);
+    }
+
+    @Override
+    public Slice<ProductView> findViewSlice(Specification<Product> spec, Pageable pageable) {
+        List<ProductView> views = pageViews(spec, pageable, 1);
+        boolean hasNext = pageable.isPaged() && views.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? views.subList(0, pageable.getPageSize()) : views, pageable, hasNext);
+    }
+
+    @Override
+    public List<ProductView> findViews(Specification<Product> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ProductView> query = cb.createQuery(ProductView.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(construct(cb, root)).where(spec.toPredicate(root, query, cb));
+        query.orderBy(toOrders(sort, root, cb));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Optional<ProductView> findViewById(Long productId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ProductView> query = cb.createQuery(ProductView.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(construct(cb, root)).where(cb.equal(root.get("id"), productId));
+        return entityManager.createQuery(query).getResultStream().findFirst();
+    }
+
+    @Override
+    public List<Long> findIds(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(root.get("id")).where(spec.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public Map<Long, List<String>> findImageUrls(Collection<Long> productIds) {
+        Map<Long, List<String>> urls = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return urls;
+        }
+        entityManager.createQuery(
+                        "select i.product.id as productId, i.url as url from Image i "
+                                + "where i.product.id in :ids order by i.id", Tuple.class)
+                .setParameter("ids", productIds)
+                .getResultList()
+                .forEach(row -> urls.computeIfAbsent(row.get("productId", Long.class), id -> new ArrayList<>())
+                        .add(row.get("url", String.class)));
+        return urls;
+    }
+
+    private List<ProductView> pageViews(Specification<Product> spec, Pageable pageable, int extraRows) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ProductView> query = cb.createQuery(ProductView.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(construct(cb, root)).where(spec.toPredicate(root, query, cb));
+        query.orderBy(toOrders(pageable.getSort().and(Sort.by("id")), root, cb));
+
+        TypedQuery<ProductView> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize() + extraRows);
+        }
+        return typedQuery.getResultList();
+    }
+
+    private static CompoundSelection<ProductView> construct(CriteriaBuilder cb, Root<Product> root) {
+        Join<Product, Category> category = root.join("category");
+        return cb.construct(ProductView.class,
+                root.get("id"),
+                root.get("name"),
+                root.get("description"),
+                root.get("price"),
+                root.get("priceDiscount"),
+                root.get("stock"),
+                root.get("brandName"),
+                category.get("name"));
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root)).where(spec.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -1,8 +1,38 @@
 package dev.francode.ordersystem.repository;
 
+import dev.francode.ordersystem.dto.product.ProductNameView;
+import dev.francode.ordersystem.dto.product.ProductSearchDocument;
+import dev.francode.ordersystem.dto.product.ProductVersionView;
 import dev.francode.ordersystem.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductStockRepository, ProductQueryRepository {
+
+    @Query("select p from Product p join fetch p.category where p.id in :ids")
+    List<Product> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Validadores HTTP del detalle sin cargar la entidad
+    @Query("select new dev.francode.ordersystem.dto.product.ProductVersionView("
+            + "p.updatedAt, c.updatedAt, max(i.updatedAt), count(i), p.stock) "
+            + "from Product p join p.category c left join p.images i "
+            + "where p.id = :id group by p.id, p.updatedAt, c.updatedAt, p.stock")
+    Optional<ProductVersionView> findVersionView(@Param("id") Long productId);
+
+    // Carga completa de los índices en memoria del catálogo
+    @Query("select new dev.francode.ordersystem.dto.product.ProductSearchDocument("
+            + "p.id, p.name, p.brandName, p.description, c.id, c.name, p.price) "
+            + "from Product p join p.category c")
+    List<ProductSearchDocument> findSearchDocuments();
+
+    @Query("select new dev.francode.ordersystem.dto.product.ProductNameView(p.id, p.name) "
+            + "from Product p where p.id in :ids")
+    List<ProductNameView> findNamesByIdIn(@Param("ids") Collection<Long> ids);
 }
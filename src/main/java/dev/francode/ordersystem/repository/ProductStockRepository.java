@@ -0,0 +1,36 @@
+package dev.francode.ordersystem.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductStockRepository {
+
+    // Descuenta el stock de varios productos en un único lote JDBC.
+    // Devuelve los IDs sin stock suficiente; si hay alguno, no se descuenta ninguna línea.
+    List<Long> decrementStock(Map<Long, Integer> quantities);
+
+    // Repone el stock de varios productos en un único lote JDBC (admite deltas negativos).
+    void incrementStock(Map<Long, Integer> quantities);
+
+    // Stock efectivo: columna de Productos más sus fragmentos, si los tiene
+    Map<Long, Integer> findStock(Collection<Long> productIds);
+
+    Map<Long, Integer> findAllStock();
+
+    // Descuenta de un único fragmento; false si no existe o no alcanza
+    boolean decrementShard(Long productId, int shard, int quantity);
+
+    boolean incrementShard(Long productId, int shard, int quantity);
+
+    // Bloquea el producto y los fragmentos libres, descuenta del total y reparte el resto entre ellos.
+    // Los fragmentos ocupados por otras compras no cuentan: con poco stock puede rechazar aunque quede en ellos
+    boolean rebalanceShards(Long productId, int shards, int quantity);
+
+    // Crea a cero los fragmentos que falten, para que las compras nunca tengan que insertarlos
+    void createShards(Collection<Long> productIds, int shards);
+
+    void clearShards(Long productId);
+
+    void deleteShards(Long productId);
+}
@@ -0,0 +1,186 @@
+package dev.francode.ordersystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE productos SET stock = stock - ? WHERE id = ? AND stock >= ?";
+    private static final String INCREMENT_SQL =
+            "UPDATE productos SET stock = stock + ? WHERE id = ?";
+    private static final String EFFECTIVE_STOCK_SQL =
+            "SELECT p.id, p.stock + COALESCE(SUM(f.stock), 0) AS stock FROM productos p "
+                    + "LEFT JOIN productos_stock_fragmentos f ON f.id_producto = p.id";
+    private static final String DECREMENT_SHARD_SQL =
+            "UPDATE productos_stock_fragmentos SET stock = stock - ? "
+                    + "WHERE id_producto = ? AND fragmento = ? AND stock >= ?";
+    private static final String INCREMENT_SHARD_SQL =
+            "UPDATE productos_stock_fragmentos SET stock = stock + ? WHERE id_producto = ? AND fragmento = ?";
+    private static final String CREATE_SHARD_SQL =
+            "INSERT INTO productos_stock_fragmentos (id_producto, fragmento, stock) SELECT ?, ?, 0 FROM productos p "
+                    + "WHERE p.id = ? AND NOT EXISTS (SELECT 1 FROM productos_stock_fragmentos f "
+                    + "WHERE f.id_producto = ? AND f.fragmento = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+
+        List<Map.Entry<Long, Integer>> lines = sortedById(quantities);
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+            ps.setInt(3, line.getValue());
+        })[0];
+
+        List<Long> shortProducts = new ArrayList<>();
+        Map<Long, Integer> applied = new LinkedHashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (updated[i] == 0) {
+                shortProducts.add(lines.get(i).getKey());
+            } else {
+                applied.put(lines.get(i).getKey(), lines.get(i).getValue());
+            }
+        }
+
+        // Todo o nada: se repone lo ya descontado para no dejar el pedido a medias
+        if (!shortProducts.isEmpty()) {
+            incrementStock(applied);
+        }
+        return shortProducts;
+    }
+
+    @Override
+    public void incrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Integer>> lines = sortedById(quantities);
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+        });
+    }
+
+    @Override
+    public Map<Long, Integer> findStock(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        Map<Long, Integer> stock = new HashMap<>();
+        jdbcTemplate.query(EFFECTIVE_STOCK_SQL + " WHERE p.id IN (" + placeholders + ") GROUP BY p.id, p.stock",
+                rs -> {
+                    stock.put(rs.getLong("id"), rs.getInt("stock"));
+                },
+                productIds.toArray());
+        return stock;
+    }
+
+    @Override
+    public Map<Long, Integer> findAllStock() {
+        Map<Long, Integer> stock = new HashMap<>();
+        jdbcTemplate.query(EFFECTIVE_STOCK_SQL + " GROUP BY p.id, p.stock", rs -> {
+            stock.put(rs.getLong("id"), rs.getInt("stock"));
+        });
+        return stock;
+    }
+
+    @Override
+    public boolean decrementShard(Long productId, int shard, int quantity) {
+        return jdbcTemplate.update(DECREMENT_SHARD_SQL, quantity, productId, shard, quantity) > 0;
+    }
+
+    @Override
+    public boolean incrementShard(Long productId, int shard, int quantity) {
+        return jdbcTemplate.update(INCREMENT_SHARD_SQL, quantity, productId, shard) > 0;
+    }
+
+    @Override
+    public boolean rebalanceShards(Long productId, int shards, int quantity) {
+        // Siempre la fila del producto primero y después sus fragmentos por índice. Los fragmentos que otra
+        // compra tiene bloqueados se saltan: esa compra puede estar esperando esta misma fila para reequilibrar
+        Integer columnStock = jdbcTemplate.queryForObject(
+                "SELECT stock FROM productos WHERE id = ? FOR UPDATE", Integer.class, productId);
+
+        Map<Integer, Integer> current = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT fragmento, stock FROM productos_stock_fragmentos WHERE id_producto = ? "
+                        + "ORDER BY fragmento FOR UPDATE SKIP LOCKED",
+                rs -> {
+                    current.put(rs.getInt("fragmento"), rs.getInt("stock"));
+                },
+                productId);
+
+        int total = (columnStock != null ? columnStock : 0)
+                + current.values().stream().mapToInt(Integer::intValue).sum();
+        if (total < quantity) {
+            return false;
+        }
+
+        // El resto se reparte a partes iguales entre los fragmentos bloqueados; sin ninguno, queda en la columna
+        List<Integer> targets = current.keySet().stream().filter(shard -> shard < shards).toList();
+        int remaining = total - quantity;
+        List<Object[]> updates = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i++) {
+            int value = remaining / targets.size() + (i < remaining % targets.size() ? 1 : 0);
+            updates.add(new Object[]{value, productId, targets.get(i)});
+        }
+        for (Integer shard : current.keySet()) {
+            if (shard >= shards) {
+                updates.add(new Object[]{0, productId, shard});
+            }
+        }
+
+        jdbcTemplate.update("UPDATE productos SET stock = ? WHERE id = ?", targets.isEmpty() ? remaining : 0, productId);
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE productos_stock_fragmentos SET stock = ? WHERE id_producto = ? AND fragmento = ?", updates);
+        }
+        return true;
+    }
+
+    @Override
+    public void createShards(Collection<Long> productIds, int shards) {
+        List<Object[]> inserts = new ArrayList<>();
+        for (Long productId : productIds) {
+            for (int shard = 0; shard < shards; shard++) {
+                inserts.add(new Object[]{productId, shard, productId, productId, shard});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(CREATE_SHARD_SQL, inserts);
+        }
+    }
+
+    @Override
+    public void clearShards(Long productId) {
+        jdbcTemplate.update("UPDATE productos_stock_fragmentos SET stock = 0 WHERE id_producto = ?", productId);
+    }
+
+    @Override
+    public void deleteShards(Long productId) {
+        jdbcTemplate.update("DELETE FROM productos_stock_fragmentos WHERE id_producto = ?", productId);
+    }
+
+    // Las filas se bloquean siempre en orden de id: dos carritos {A,B} y {B,A} no pueden esperarse en ciclo
+    private static List<Map.Entry<Long, Integer>> sortedById(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantities.entrySet());
+        lines.sort(Map.Entry.comparingByKey());
+        return lines;
+    }
+}
@@ -0,0 +1,22 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    // Revocaciones recientes, también las hechas por otras instancias
+    List<RevokedToken> findByCreatedAtAfter(LocalDateTime since);
+
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt < :limit")
+    int deleteExpiredBefore(@Param("limit") LocalDateTime limit);
+}
@@ -0,0 +1,53 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.dto.report.CategorySalesResponse;
+import dev.francode.ordersystem.dto.report.DailySalesResponse;
+import dev.francode.ordersystem.dto.report.ProductSalesResponse;
+import dev.francode.ordersystem.entity.SalesRollup;
+import dev.francode.ordersystem.entity.enums.ESalesDimension;
+import dev.francode.ordersystem.entity.enums.EStatusOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Las lecturas recorren filas de resumen (días x estados x productos vendidos), nunca Pedidos
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollup.RollupId>,
+        SalesRollupWriteRepository {
+
+    @Query("select new dev.francode.ordersystem.dto.report.DailySalesResponse("
+            + "r.date, sum(r.orders), sum(r.units), sum(r.revenue)) "
+            + "from SalesRollup r where r.dimension = :dimension and r.date between :from and :to "
+            + "and (:status is null or r.status = :status) "
+            + "group by r.date having sum(r.orders) > 0 order by r.date")
+    List<DailySalesResponse> findDailySales(@Param("dimension") ESalesDimension dimension,
+                                            @Param("from") LocalDate from,
+                                            @Param("to") LocalDate to,
+                                            @Param("status") EStatusOrder status);
+
+    @Query("select new dev.francode.ordersystem.dto.report.ProductSalesResponse("
+            + "r.referenceId, p.name, sum(r.orders), sum(r.units), sum(r.revenue)) "
+            + "from SalesRollup r left join Product p on p.id = r.referenceId "
+            + "where r.dimension = :dimension and r.date between :from and :to "
+            + "and (:status is null or r.status = :status) "
+            + "group by r.referenceId, p.name having sum(r.orders) > 0 order by sum(r.revenue) desc, r.referenceId")
+    List<ProductSalesResponse> findProductSales(@Param("dimension") ESalesDimension dimension,
+                                                @Param("from") LocalDate from,
+                                                @Param("to") LocalDate to,
+                                                @Param("status") EStatusOrder status,
+                                                Pageable pageable);
+
+    @Query("select new dev.francode.ordersystem.dto.report.CategorySalesResponse("
+            + "r.referenceId, c.name, sum(r.orders), sum(r.units), sum(r.revenue)) "
+            + "from SalesRollup r left join Category c on c.id = r.referenceId "
+            + "where r.dimension = :dimension and r.date between :from and :to "
+            + "and (:status is null or r.status = :status) "
+            + "group by r.referenceId, c.name having sum(r.orders) > 0 order by sum(r.revenue) desc, r.referenceId")
+    List<CategorySalesResponse> findCategorySales(@Param("dimension") ESalesDimension dimension,
+                                                  @Param("from") LocalDate from,
+                                                  @Param("to") LocalDate to,
+                                                  @Param("status") EStatusOrder status);
+}
@@ -0,0 +1,15 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.entity.SalesRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesRollupWriteRepository {
+
+    // Suma los deltas a sus filas (creándolas si no existen) en un único lote JDBC
+    void addDeltas(List<SalesRollup> deltas);
+
+    // Borra los resúmenes de [from, toExclusive) y los recalcula desde Pedidos y sus líneas
+    void recompute(LocalDate from, LocalDate toExclusive);
+}
@@ -0,0 +1,69 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.entity.SalesRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class SalesRollupWriteRepositoryImpl implements SalesRollupWriteRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO ventas_resumen_diario (fecha, estado, dimension, id_referencia, pedidos, unidades, ingresos) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?) AS delta "
+                    + "ON DUPLICATE KEY UPDATE pedidos = ventas_resumen_diario.pedidos + delta.pedidos, "
+                    + "unidades = ventas_resumen_diario.unidades + delta.unidades, "
+                    + "ingresos = ventas_resumen_diario.ingresos + delta.ingresos";
+    private static final String DELETE_SQL =
+            "DELETE FROM ventas_resumen_diario WHERE fecha >= ? AND fecha < ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO ventas_resumen_diario (fecha, estado, dimension, id_referencia, pedidos, unidades, ingresos) ";
+    private static final String DAY_SQL = INSERT_SQL
+            + "SELECT DATE(o.fecha), o.estado, 'DIA', 0, COUNT(*), SUM(l.unidades), SUM(o.monto_total) "
+            + "FROM pedidos o JOIN (SELECT d.id_pedido, SUM(d.cantidad) AS unidades FROM pedidos_productos d "
+            + "JOIN pedidos p ON p.id = d.id_pedido WHERE p.fecha >= ? AND p.fecha < ? GROUP BY d.id_pedido) l "
+            + "ON l.id_pedido = o.id GROUP BY DATE(o.fecha), o.estado";
+    private static final String PRODUCT_SQL = INSERT_SQL
+            + "SELECT DATE(o.fecha), o.estado, 'PRODUCTO', d.id_producto, COUNT(*), SUM(d.cantidad), SUM(d.sub_total) "
+            + "FROM pedidos o JOIN pedidos_productos d ON d.id_pedido = o.id "
+            + "WHERE o.fecha >= ? AND o.fecha < ? GROUP BY DATE(o.fecha), o.estado, d.id_producto";
+    // Con la categoría guardada en la línea, igual que los deltas; las líneas antiguas sin ella usan la actual
+    private static final String CATEGORY_SQL = INSERT_SQL
+            + "SELECT DATE(o.fecha), o.estado, 'CATEGORIA', COALESCE(d.id_categoria, p.id_categoria), "
+            + "COUNT(DISTINCT o.id), SUM(d.cantidad), SUM(d.sub_total) "
+            + "FROM pedidos o JOIN pedidos_productos d ON d.id_pedido = o.id "
+            + "JOIN productos p ON p.id = d.id_producto "
+            + "WHERE o.fecha >= ? AND o.fecha < ? "
+            + "GROUP BY DATE(o.fecha), o.estado, COALESCE(d.id_categoria, p.id_categoria)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addDeltas(List<SalesRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setDate(1, Date.valueOf(delta.getDate()));
+            ps.setString(2, delta.getStatus().name());
+            ps.setString(3, delta.getDimension().name());
+            ps.setLong(4, delta.getReferenceId());
+            ps.setLong(5, delta.getOrders());
+            ps.setLong(6, delta.getUnits());
+            ps.setBigDecimal(7, delta.getRevenue());
+        });
+    }
+
+    @Override
+    public void recompute(LocalDate from, LocalDate toExclusive) {
+        Date start = Date.valueOf(from);
+        Date end = Date.valueOf(toExclusive);
+        jdbcTemplate.update(DELETE_SQL, start, end);
+        jdbcTemplate.update(DAY_SQL, start, end);
+        jdbcTemplate.update(PRODUCT_SQL, start, end);
+        jdbcTemplate.update(CATEGORY_SQL, start, end);
+    }
+}
@@ -0,0 +1,11 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.entity.UserApp;
+
+import java.util.Optional;
+
+public interface UserLookupRepository {
+
+    // Búsqueda por correo (natural id): se resuelve desde la caché de segundo nivel cuando es posible
+    Optional<UserApp> findByNaturalEmail(String email);
+}
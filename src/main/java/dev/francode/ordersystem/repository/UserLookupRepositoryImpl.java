@@ -0,0 +1,23 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.entity.UserApp;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class UserLookupRepositoryImpl implements UserLookupRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserApp> findByNaturalEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(UserApp.class)
+                .loadOptional(email);
+    }
+}
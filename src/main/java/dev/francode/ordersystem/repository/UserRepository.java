@@ -2,12 +2,18 @@ package dev.francode.ordersystem.repository;
 
 import dev.francode.ordersystem.entity.UserApp;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<UserApp, Long> {
+public interface UserRepository extends JpaRepository<UserApp, Long>, UserLookupRepository {
     boolean existsByEmail(String email);
     Optional<UserApp> findByEmail(String email);
+
+    // Carga del filtro de correos registrados; requiere una transacción abierta
+    @Query("select u.email from UserApp u")
+    Stream<String> streamAllEmails();
 }
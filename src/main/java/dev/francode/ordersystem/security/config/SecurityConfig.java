@@ -1,8 +1,11 @@
 package dev.francode.ordersystem.security.config;
 
+import dev.francode.ordersystem.security.custom.BoundedPasswordEncoder;
 import dev.francode.ordersystem.security.custom.CustomAuthEntryPoint;
 import dev.francode.ordersystem.security.jwt.AuthTokenFilter;
 import dev.francode.ordersystem.service.auth.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,7 +16,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -48,6 +50,8 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS) // Sesiones sin estado
                 )
                 .authorizeHttpRequests(authorize -> authorize
+                        // Reanudación de peticiones asíncronas (SSE, CompletableFuture) ya autorizadas al entrar
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/v1/auth/register-customer").permitAll()
                         .requestMatchers("/api/v1/auth/login").permitAll()
                         .requestMatchers("/api/v1/auth/refresh").permitAll()
@@ -85,8 +89,13 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${francode.app.auth.hash-threads}") int threads,
+                                           @Value("${francode.app.auth.hash-queue-capacity}") int queueCapacity,
+                                           @Value("${francode.app.auth.hash-timeout-ms}") long timeoutMs,
+                                           @Value("${francode.app.auth.hash-target-ms}") long targetMs,
+                                           @Value("${francode.app.auth.hash-min-cost}") int minCost,
+                                           @Value("${francode.app.auth.hash-max-cost}") int maxCost) {
+        return new BoundedPasswordEncoder(threads, queueCapacity, timeoutMs, targetMs, minCost, maxCost);
     }
 
     @Bean
@@ -0,0 +1,103 @@
+package dev.francode.ordersystem.security.custom;
+
+import dev.francode.ordersystem.exceptions.custom.ServiceBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+
+// BCrypt fuera de los hilos de Tomcat: un pool fijo con cola acotada limita la CPU dedicada a hashes
+// y, con la cola llena, se rechaza de inmediato en lugar de dejar sin hilos al resto de endpoints.
+// El coste se calibra al arrancar para acercarse a la latencia objetivo; los hashes con un coste
+// menor se regeneran en el siguiente login (upgradeEncoding).
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private static final String BUSY_MESSAGE = "Demasiadas solicitudes de autenticación. Intente nuevamente en unos segundos.";
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    public BoundedPasswordEncoder(int threads, int queueCapacity, long timeoutMs,
+                                  long targetMs, int minCost, int maxCost) {
+        int cost = calibrate(targetMs, minCost, maxCost);
+        this.delegate = new BCryptPasswordEncoder(cost);
+        this.timeoutMs = timeoutMs;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("BCrypt calibrado con coste {} (objetivo {} ms, {} hilos, cola {})", cost, targetMs, threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceBusyException(BUSY_MESSAGE);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceBusyException(BUSY_MESSAGE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Cada punto de coste duplica el tiempo: se sube mientras el siguiente siga dentro del objetivo
+    private static int calibrate(long targetMs, int minCost, int maxCost) {
+        int cost = minCost;
+        measure(cost); // calentamiento del JIT
+        long elapsedMs = measure(cost);
+        while (cost < maxCost && elapsedMs * 2 <= targetMs) {
+            cost++;
+            elapsedMs = measure(cost);
+        }
+        return cost;
+    }
+
+    private static long measure(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long start = System.nanoTime();
+        encoder.encode("calibracion");
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
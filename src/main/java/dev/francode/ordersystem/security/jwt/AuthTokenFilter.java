@@ -19,7 +19,8 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 import dev.francode.ordersystem.service.auth.UserDetailsImpl;
-import dev.francode.ordersystem.service.auth.UserDetailsServiceImpl;
+import dev.francode.ordersystem.service.auth.PrincipalService;
+import dev.francode.ordersystem.service.auth.TokenRevocationService;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
 
@@ -27,7 +28,10 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils;
 
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private PrincipalService principalService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
@@ -39,14 +43,16 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         try {
             String jwt = parseJwt(request);
             if (jwt != null) {
-                if (!jwtUtils.validateJwtToken(jwt)) {
-                    throw new AuthenticationCredentialsNotFoundException("Token inválido");
+                // Una sola verificación por petición (y ninguna si el token ya se verificó antes)
+                Claims claims = jwtUtils.verifyJwtToken(jwt);
+                if (JwtUtils.REFRESH_TYPE.equals(claims.get(JwtUtils.TYPE_CLAIM, String.class))) {
+                    throw new AuthenticationCredentialsNotFoundException("Un refresh token no sirve como token de acceso");
                 }
-
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-         
-                UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+                // Búsqueda en memoria: la revocación no añade consultas a las peticiones autenticadas
+                if (tokenRevocationService.isRevoked(claims)) {
+                    throw new AuthenticationCredentialsNotFoundException("Token revocado");
+                }
+                UserDetailsImpl userDetails = principalService.resolve(claims);
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -1,8 +1,12 @@
 package dev.francode.ordersystem.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import dev.francode.ordersystem.service.auth.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,12 +15,21 @@ import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    public static final String TYPE_CLAIM = "type";
+    public static final String ACCESS_TYPE = "access";
+    public static final String REFRESH_TYPE = "refresh";
+
     @Value("${francode.app.jwtSecret}")
     private String jwtSecret;
 
@@ -26,70 +39,106 @@ public class JwtUtils {
     @Value("${francode.app.jwtRefreshExpirationMs}")
     private int jwtRefreshExpirationMs;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    @Value("${francode.app.jwt.verified-cache-max-entries}")
+    private long verifiedCacheMaxEntries;
+
+    // Clave y parser se construyen una vez; JwtParser es inmutable y seguro entre hilos
+    private Key signingKey;
+    private JwtParser parser;
+
+    // Tokens ya verificados (por huella SHA-256) con sus claims, hasta que expira cada token
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxEntries)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        long remainingMs = expiration == null ? 0 : expiration.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
-        String role = userPrincipal.getAuthorities().iterator().next().getAuthority();
-
-        return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
-                .claim("role", role)
-                .claim("id", userPrincipal.getId())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+        return generateAccessToken(userPrincipal.getUsername(), roleOf(userPrincipal), userPrincipal.getId());
     }
 
     public String generateRefreshToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
-        String role = userPrincipal.getAuthorities().iterator().next().getAuthority();
+        return generateRefreshToken(userPrincipal.getUsername(), roleOf(userPrincipal), userPrincipal.getId());
+    }
 
-        return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
-                .claim("role", role)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtRefreshExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+    public String generateAccessToken(String email, String role, Long id) {
+        return buildToken(email, role, id, ACCESS_TYPE, jwtExpirationMs);
     }
 
-    public String generateTokenFromEmail(String email, String role) {
-        return Jwts.builder()
+    public String generateRefreshToken(String email, String role, Long id) {
+        return buildToken(email, role, id, REFRESH_TYPE, jwtRefreshExpirationMs);
+    }
+
+    // El jti identifica cada token para poder revocarlo; el tipo impide usar un refresh token como token de acceso
+    private String buildToken(String email, String role, Long id, String type, long expirationMs) {
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .claim("role", role)
+                .claim(TYPE_CLAIM, type)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMs));
+        if (id != null) {
+            builder.claim("id", id);
+        }
+        return builder.signWith(signingKey, SignatureAlgorithm.HS512).compact();
+    }
+
+    private static String roleOf(UserDetailsImpl userPrincipal) {
+        return userPrincipal.getAuthorities().iterator().next().getAuthority();
+    }
+
+    // Verifica firma y expiración una sola vez y devuelve los claims; los claims devueltos no deben modificarse
+    public Claims verifyJwtToken(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("JWT vacío");
+        }
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        verifiedTokens.put(digest, claims);
+        return claims;
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verifyJwtToken(token).getSubject();
     }
 
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return verifyJwtToken(token);
     }
 
     public boolean validateJwtToken(String authToken) throws ExpiredJwtException {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(authToken);
+            verifyJwtToken(authToken);
             return true;
         } catch (ExpiredJwtException e) {
             throw e;
@@ -102,4 +151,13 @@ public class JwtUtils {
         }
         return false;
     }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package dev.francode.ordersystem.security.jwt;
+
+import dev.francode.ordersystem.service.auth.PrincipalService;
+import dev.francode.ordersystem.service.auth.TokenRevocationService;
+import dev.francode.ordersystem.service.auth.UserDetailsImpl;
+import dev.francode.ordersystem.service.interfaces.AdminFeedService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.security.Principal;
+import java.util.Map;
+
+// El handshake de /ws es público (SecurityConfig): el token llega en la cabecera Authorization del frame CONNECT,
+// con las mismas comprobaciones que AuthTokenFilter. Los destinos del broker son solo de lectura para los clientes
+// y solo se admiten suscripciones a los destinos exactos de SUBSCRIPTIONS, con su rol.
+// Una excepción aquí responde con un frame ERROR y cierra la sesión.
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    // Destinos suscribibles y el rol que exige cada uno. Solo valen coincidencias exactas: el broker simple
+    // interpreta patrones Ant, así que "/topic/**" recibiría también los mensajes de administración.
+    private static final Map<String, String> SUBSCRIPTIONS = Map.of(AdminFeedService.DESTINATION, "ADMIN");
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final JwtUtils jwtUtils;
+    private final PrincipalService principalService;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        switch (accessor.getCommand()) {
+            case CONNECT -> accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+            case SUBSCRIBE -> authorizeSubscription(accessor.getDestination(), accessor.getUser());
+            // Sin esto cualquier cliente podría publicar mensajes falsos en los topics del broker
+            case SEND -> throw new AccessDeniedException("Los clientes no pueden publicar en " + accessor.getDestination());
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    private Authentication authenticate(String headerAuth) {
+        if (!StringUtils.hasText(headerAuth) || !headerAuth.startsWith("Bearer ")) {
+            throw new AuthenticationCredentialsNotFoundException("Falta el token en el frame CONNECT");
+        }
+        Claims claims;
+        try {
+            claims = jwtUtils.verifyJwtToken(headerAuth.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new AuthenticationCredentialsNotFoundException("Error de autenticación", e);
+        }
+        if (JwtUtils.REFRESH_TYPE.equals(claims.get(JwtUtils.TYPE_CLAIM, String.class))) {
+            throw new AuthenticationCredentialsNotFoundException("Un refresh token no sirve como token de acceso");
+        }
+        if (tokenRevocationService.isRevoked(claims)) {
+            throw new AuthenticationCredentialsNotFoundException("Token revocado");
+        }
+        UserDetailsImpl userDetails = principalService.resolve(claims);
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private static void authorizeSubscription(String destination, Principal user) {
+        if (destination == null || PATH_MATCHER.isPattern(destination)) {
+            throw new AccessDeniedException("Destino de suscripción no válido: " + destination);
+        }
+        String authority = SUBSCRIPTIONS.get(destination);
+        if (authority == null) {
+            throw new AccessDeniedException("Destino de suscripción desconocido: " + destination);
+        }
+        if (!hasAuthority(user, authority)) {
+            throw new AccessDeniedException("No tiene permiso para suscribirse a " + destination);
+        }
+    }
+
+    private static boolean hasAuthority(Principal user, String role) {
+        return user instanceof Authentication authentication && authentication.getAuthorities().stream()
+                .anyMatch(authority -> role.equals(authority.getAuthority()));
+    }
+}
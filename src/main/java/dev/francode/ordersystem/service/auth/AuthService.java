@@ -7,4 +7,5 @@ public interface AuthService {
     JwtResponse authenticateUser(LoginRequest loginRequest);
     JwtResponse registerCustomer(CustomerRegisterRequest customerRegisterRequest);
     RefreshTokenResponse refreshToken(RefreshTokenRequest refreshTokenRequest);
+    void logout(String accessToken, String refreshToken);
 }
@@ -3,6 +3,7 @@ package dev.francode.ordersystem.service.auth;
 import dev.francode.ordersystem.dto.auth.*;
 import dev.francode.ordersystem.entity.UserApp;
 import dev.francode.ordersystem.entity.enums.ERole;
+import dev.francode.ordersystem.exceptions.custom.ServiceBusyException;
 import dev.francode.ordersystem.exceptions.custom.ValidationException;
 import dev.francode.ordersystem.repository.UserRepository;
 import dev.francode.ordersystem.security.jwt.JwtUtils;
@@ -10,10 +11,12 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -25,29 +28,39 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final TokenRevocationService tokenRevocationService;
+    private final PrincipalService principalService;
+    private final UserDetailsServiceImpl userDetailsService;
 
     public AuthServiceImpl(UserRepository userRepository,
                            PasswordEncoder passwordEncoder,
                            AuthenticationManager authenticationManager,
-                           JwtUtils jwtUtils) {
+                           JwtUtils jwtUtils,
+                           RegisteredEmailFilter registeredEmailFilter,
+                           TokenRevocationService tokenRevocationService,
+                           PrincipalService principalService,
+                           UserDetailsServiceImpl userDetailsService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
+        this.registeredEmailFilter = registeredEmailFilter;
+        this.tokenRevocationService = tokenRevocationService;
+        this.principalService = principalService;
+        this.userDetailsService = userDetailsService;
     }
 
     @Override
     public UserResponse registerUser(UserRegisterRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new ValidationException("El correo electrónico ya está registrado.");
-        }
+        checkEmailAvailable(request.getEmail());
 
         UserApp user = new UserApp();
         user.setEmail(request.getEmail());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setRol(ERole.valueOf(request.getRol().toUpperCase()));
 
-        UserApp savedUser = userRepository.save(user);
+        UserApp savedUser = saveNewUser(user);
 
         return UserResponse.builder()
                 .id(savedUser.getId())
@@ -58,19 +71,19 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public JwtResponse registerCustomer(CustomerRegisterRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new ValidationException("El correo electrónico ya está registrado.");
-        }
+        checkEmailAvailable(request.getEmail());
 
         UserApp user = new UserApp();
         user.setEmail(request.getEmail());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setRol(ERole.CLIENTE);
 
-        UserApp savedUser = userRepository.save(user);
+        UserApp savedUser = saveNewUser(user);
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+        // La contraseña se acaba de cifrar: no hace falta un segundo BCrypt para autenticar
+        UserDetailsImpl userDetails = UserDetailsImpl.build(savedUser);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
         String jwt = jwtUtils.generateJwtToken(authentication);
@@ -91,6 +104,8 @@ public class AuthServiceImpl implements AuthService {
         try {
             authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             throw new ValidationException("Credenciales inválidas. Por favor, verifique su correo y contraseña.");
         }
@@ -111,27 +126,82 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
-public RefreshTokenResponse refreshToken(RefreshTokenRequest request) {
-    String refreshToken = request.getRefreshToken();
-
-    try {
-        jwtUtils.validateJwtToken(refreshToken);
-    } catch (ExpiredJwtException e) {
-        throw new ValidationException("Refresh token expirado. Por favor, inicie sesión nuevamente.");
-    } catch (JwtException e) {
-        throw new ValidationException("Refresh token inválido.");
+    public RefreshTokenResponse refreshToken(RefreshTokenRequest request) {
+        Claims claims = verifyRefreshToken(request.getRefreshToken());
+
+        // Tras un cambio de rol o una baja, los refresh emitidos antes obligan a iniciar sesión de nuevo
+        if (principalService.isInvalidated(claims)) {
+            throw new ValidationException("Refresh token inválido. Por favor, inicie sesión nuevamente.");
+        }
+
+        // Rotación: cada refresh token sirve una sola vez; si ya estaba revocado se trata como reutilización
+        if (tokenRevocationService.isRevoked(claims) || (claims.getId() != null && !tokenRevocationService.revoke(claims))) {
+            log.warn("Reutilización de un refresh token revocado para {}", claims.getSubject());
+            throw new ValidationException("Refresh token inválido.");
+        }
+
+        // El rol y el id se leen de la BD (caché de id natural), no del token anterior: así un usuario
+        // degradado o dado de baja no puede seguir rotando tokens con los datos viejos
+        UserDetailsImpl user;
+        try {
+            user = (UserDetailsImpl) userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            throw new ValidationException("Refresh token inválido.");
+        }
+        String role = user.getAuthorities().iterator().next().getAuthority();
+
+        return RefreshTokenResponse.builder()
+                .token(jwtUtils.generateAccessToken(user.getEmail(), role, user.getId()))
+                .refreshToken(jwtUtils.generateRefreshToken(user.getEmail(), role, user.getId()))
+                .build();
     }
 
-    String email = jwtUtils.getUserNameFromJwtToken(refreshToken);
-    Claims claims = jwtUtils.getAllClaimsFromToken(refreshToken);
-    String role = claims.get("role", String.class);
+    @Override
+    public void logout(String accessToken, String refreshToken) {
+        Claims accessClaims = jwtUtils.verifyJwtToken(accessToken);
+        tokenRevocationService.revoke(accessClaims);
+
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            Claims refreshClaims = verifyRefreshToken(refreshToken);
+            if (!accessClaims.getSubject().equals(refreshClaims.getSubject())) {
+                throw new ValidationException("El refresh token no pertenece al usuario autenticado.");
+            }
+            tokenRevocationService.revoke(refreshClaims);
+        }
+    }
 
-    // Usamos método que no requiere Authentication
-    String newAccessToken = jwtUtils.generateTokenFromEmail(email, role);
+    private Claims verifyRefreshToken(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtUtils.verifyJwtToken(refreshToken);
+        } catch (ExpiredJwtException e) {
+            throw new ValidationException("Refresh token expirado. Por favor, inicie sesión nuevamente.");
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new ValidationException("Refresh token inválido.");
+        }
+        // Los tokens anteriores a la rotación no llevan tipo; un token de acceso no se acepta como refresh
+        if (JwtUtils.ACCESS_TYPE.equals(claims.get(JwtUtils.TYPE_CLAIM, String.class))) {
+            throw new ValidationException("Refresh token inválido.");
+        }
+        return claims;
+    }
 
-    return RefreshTokenResponse.builder()
-            .token(newAccessToken)
-            .build();
-}
+    // El filtro descarta sin consultar la BD los correos que seguro no están registrados
+    private void checkEmailAvailable(String email) {
+        if (registeredEmailFilter.mightContain(email) && userRepository.existsByEmail(email)) {
+            throw new ValidationException("El correo electrónico ya está registrado.");
+        }
+    }
 
+    // La restricción única cubre las altas simultáneas y las de otras instancias, que el filtro no conoce
+    private UserApp saveNewUser(UserApp user) {
+        UserApp savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new ValidationException("El correo electrónico ya está registrado.");
+        }
+        registeredEmailFilter.add(savedUser.getEmail());
+        return savedUser;
+    }
 }
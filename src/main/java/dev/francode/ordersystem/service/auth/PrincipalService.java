@@ -0,0 +1,16 @@
+package dev.francode.ordersystem.service.auth;
+
+import io.jsonwebtoken.Claims;
+
+public interface PrincipalService {
+
+    // Usuario autenticado a partir de los claims de un token ya verificado
+    UserDetailsImpl resolve(Claims claims);
+
+    // Tras un cambio de rol o una baja: los tokens emitidos antes dejan de confiarse y se resuelven contra la BD;
+    // se persiste y las demás instancias la aplican en su siguiente sincronización
+    void invalidate(String email);
+
+    // true si el usuario se invalidó después de emitirse el token (o el token no lleva iat)
+    boolean isInvalidated(Claims claims);
+}
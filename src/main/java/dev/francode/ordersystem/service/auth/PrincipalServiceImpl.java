@@ -0,0 +1,137 @@
+package dev.francode.ordersystem.service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.francode.ordersystem.entity.PrincipalInvalidation;
+import dev.francode.ordersystem.repository.PrincipalInvalidationRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Modo "claims": el principal se construye con el id y el rol firmados en el token, sin consultar la BD.
+// Modo "database": se carga de la BD como antes, con una caché corta delante.
+// Las invalidaciones se guardan en Usuarios_Invalidados y cada instancia las sincroniza periódicamente,
+// igual que las revocaciones de TokenRevocationServiceImpl.
+@Service
+public class PrincipalServiceImpl implements PrincipalService {
+
+    private static final Logger log = LoggerFactory.getLogger(PrincipalServiceImpl.class);
+
+    // Margen para filas confirmadas con retraso o con relojes desfasados entre instancias
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final PrincipalInvalidationRepository principalInvalidationRepository;
+    private final boolean fromClaims;
+    // Lo que dura el token más largo (el refresh): un refresh emitido antes tampoco debe rotarse después
+    private final Duration invalidationTtl;
+
+    // Principales cargados de la BD (tokens sin id, usuarios invalidados o modo "database")
+    private final Cache<String, UserDetailsImpl> principals;
+
+    // Último instante de invalidación por usuario, en milisegundos. Sin límite de tamaño: una entrada solo sale
+    // en la purga, cuando ya no queda ningún token emitido antes de ella
+    private final ConcurrentHashMap<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastSync = LocalDateTime.now();
+
+    public PrincipalServiceImpl(UserDetailsServiceImpl userDetailsService,
+                                PrincipalInvalidationRepository principalInvalidationRepository,
+                                @Value("${francode.app.auth.principal-source}") String source,
+                                @Value("${francode.app.auth.principal-cache-ttl-ms}") long cacheTtlMs,
+                                @Value("${francode.app.auth.principal-cache-max-entries}") long maxEntries,
+                                @Value("${francode.app.jwtExpirationMs}") long tokenTtlMs,
+                                @Value("${francode.app.jwtRefreshExpirationMs}") long refreshTokenTtlMs) {
+        this.userDetailsService = userDetailsService;
+        this.principalInvalidationRepository = principalInvalidationRepository;
+        this.fromClaims = "claims".equalsIgnoreCase(source);
+        this.invalidationTtl = Duration.ofMillis(Math.max(tokenTtlMs, refreshTokenTtlMs));
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        principalInvalidationRepository.findByExpiresAtAfter(now).forEach(this::remember);
+        lastSync = now;
+        log.info("Invalidaciones de usuario cargadas en memoria: {}", invalidatedAt.size());
+    }
+
+    @Override
+    public UserDetailsImpl resolve(Claims claims) {
+        String email = claims.getSubject();
+        Long id = claims.get("id", Long.class);
+        String role = claims.get("role", String.class);
+
+        if (fromClaims && id != null && role != null && !isInvalidated(email, claims.getIssuedAt())) {
+            return UserDetailsImpl.fromClaims(id, email, role);
+        }
+        return principals.get(email, key -> (UserDetailsImpl) userDetailsService.loadUserByUsername(key));
+    }
+
+    @Override
+    public void invalidate(String email) {
+        LocalDateTime now = LocalDateTime.now();
+        PrincipalInvalidation record = new PrincipalInvalidation();
+        record.setEmail(email);
+        record.setInvalidatedAt(now);
+        record.setExpiresAt(now.plus(invalidationTtl));
+        principalInvalidationRepository.saveAndFlush(record);
+        remember(record);
+    }
+
+    @Override
+    public boolean isInvalidated(Claims claims) {
+        return isInvalidated(claims.getSubject(), claims.getIssuedAt());
+    }
+
+    @Scheduled(fixedDelayString = "${francode.app.auth.revocation.sync-interval-ms:10000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        principalInvalidationRepository.findByCreatedAtAfter(lastSync.minus(SYNC_OVERLAP)).forEach(this::remember);
+        lastSync = now;
+    }
+
+    // Pasado invalidationTtl, todo token emitido antes de la invalidación ha expirado
+    @Scheduled(fixedDelayString = "${francode.app.auth.revocation.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        long limit = System.currentTimeMillis() - invalidationTtl.toMillis();
+        invalidatedAt.values().removeIf(since -> since < limit);
+        int deleted = principalInvalidationRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Invalidaciones de usuario expiradas eliminadas: {}", deleted);
+        }
+    }
+
+    // iat tiene precisión de segundos: un token del mismo segundo se trata como anterior (se consulta la BD)
+    private boolean isInvalidated(String email, Date issuedAt) {
+        Long since = invalidatedAt.get(email);
+        return since != null && (issuedAt == null || issuedAt.getTime() < since);
+    }
+
+    private void remember(PrincipalInvalidation record) {
+        long since = record.getInvalidatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Long previous = invalidatedAt.get(record.getEmail());
+        invalidatedAt.merge(record.getEmail(), since, Math::max);
+        // La sincronización vuelve a leer las filas del margen: solo una invalidación nueva descarta el principal
+        if (previous == null || previous < since) {
+            principals.invalidate(record.getEmail());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package dev.francode.ordersystem.service.auth;
+
+import dev.francode.ordersystem.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+// Filtro de Bloom con los correos registrados: un "no está" es seguro y evita consultar existsByEmail;
+// un "puede estar" se confirma contra la BD. Solo conoce los altas de esta instancia desde el arranque,
+// así que la restricción única de Usuarios.correo sigue siendo la garantía final.
+@Component
+public class RegisteredEmailFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RegisteredEmailFilter.class);
+
+    private final UserRepository userRepository;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashes;
+
+    // Hasta terminar la carga inicial cualquier correo "puede estar"
+    private volatile boolean ready;
+
+    public RegisteredEmailFilter(UserRepository userRepository,
+                                 @Value("${francode.app.auth.email-filter.expected-users}") long expectedUsers,
+                                 @Value("${francode.app.auth.email-filter.false-positive-rate}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        long optimalBits = (long) Math.ceil(-expectedUsers * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+        this.bitCount = bits.length() * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) bitCount / expectedUsers * Math.log(2)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long loaded;
+        try (Stream<String> emails = userRepository.streamAllEmails()) {
+            loaded = emails.peek(this::add).count();
+        }
+        ready = true;
+        log.info("Filtro de correos registrados cargado con {} usuarios", loaded);
+    }
+
+    public boolean mightContain(String email) {
+        if (!ready) {
+            return true;
+        }
+        long[] hash = hash(email);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(hash, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String email) {
+        long[] hash = hash(email);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    // Doble hash (Kirsch-Mitzenmacher) sobre el correo en minúsculas: la colación de MySQL no distingue mayúsculas
+    private long index(long[] hash, int i) {
+        return Math.floorMod(hash[0] + i * hash[1], bitCount);
+    }
+
+    private static long[] hash(String email) {
+        String normalized = email.toLowerCase(Locale.ROOT);
+        long h1 = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            h1 ^= normalized.charAt(i);
+            h1 *= 0x100000001b3L;
+        }
+        return new long[]{mix(h1), mix(h1 ^ 0x9e3779b97f4a7c15L) | 1};
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,12 @@
+package dev.francode.ordersystem.service.auth;
+
+import io.jsonwebtoken.Claims;
+
+public interface TokenRevocationService {
+
+    // Consulta en memoria, sin acceso a la BD; los tokens sin jti (emitidos antes de existir la revocación) nunca figuran
+    boolean isRevoked(Claims claims);
+
+    // false si el token ya estaba revocado: permite detectar la reutilización de un refresh token rotado
+    boolean revoke(Claims claims);
+}
@@ -0,0 +1,102 @@
+package dev.francode.ordersystem.service.auth;
+
+import dev.francode.ordersystem.entity.RevokedToken;
+import dev.francode.ordersystem.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+
+// La tabla Tokens_Revocados es la fuente de verdad; cada instancia mantiene en memoria los jti revocados
+// y su expiración, reconstruidos al arrancar y sincronizados periódicamente con lo que revocan las demás.
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationServiceImpl.class);
+
+    // Margen para filas confirmadas con retraso o con relojes desfasados entre instancias
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    // jti -> expiración del token en milisegundos
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastSync = LocalDateTime.now();
+
+    public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findByExpiresAtAfter(now).forEach(this::remember);
+        lastSync = now;
+        log.info("Tokens revocados cargados en memoria: {}", revoked.size());
+    }
+
+    @Override
+    public boolean isRevoked(Claims claims) {
+        return claims.getId() != null && revoked.containsKey(claims.getId());
+    }
+
+    @Override
+    public boolean revoke(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null || claims.getExpiration() == null) {
+            return false;
+        }
+        if (revoked.containsKey(jti)) {
+            return false;
+        }
+
+        RevokedToken record = new RevokedToken();
+        record.setJti(jti);
+        record.setExpiresAt(LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()));
+        try {
+            // La restricción única hace de la revocación una operación atómica entre peticiones e instancias
+            revokedTokenRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            remember(record);
+            return false;
+        }
+        remember(record);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${francode.app.auth.revocation.sync-interval-ms:10000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findByCreatedAtAfter(lastSync.minus(SYNC_OVERLAP)).forEach(this::remember);
+        lastSync = now;
+    }
+
+    // Un token expirado ya lo rechaza la verificación de firma: su revocación deja de hacer falta
+    @Scheduled(fixedDelayString = "${francode.app.auth.revocation.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+        int deleted = revokedTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Tokens revocados expirados eliminados: {}", deleted);
+        }
+    }
+
+    private void remember(RevokedToken record) {
+        Instant expiresAt = record.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant();
+        revoked.put(record.getJti(), expiresAt.toEpochMilli());
+    }
+}
@@ -1,6 +1,7 @@
 package dev.francode.ordersystem.service.auth;
 
 import dev.francode.ordersystem.entity.UserApp;
+import dev.francode.ordersystem.entity.enums.ERole;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -40,6 +41,15 @@ public class UserDetailsImpl implements UserDetails {
         );
     }
 
+    // Principal sin contraseña, con los datos firmados en el token
+    public static UserDetailsImpl fromClaims(Long id, String email, String role) {
+        return new UserDetailsImpl(id, email, null, List.of(new SimpleGrantedAuthority(role)));
+    }
+
+    public boolean isAdmin() {
+        return authorities.stream().anyMatch(authority -> ERole.ADMIN.name().equals(authority.getAuthority()));
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
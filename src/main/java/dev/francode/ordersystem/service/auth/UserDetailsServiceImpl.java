@@ -3,6 +3,7 @@ package dev.francode.ordersystem.service.auth;
 import dev.francode.ordersystem.entity.UserApp;
 import dev.francode.ordersystem.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -10,7 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -21,9 +22,19 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        UserApp user = userRepository.findByEmail(email)
+        UserApp user = userRepository.findByNaturalEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con correo electrónico:" + email));
 
         return UserDetailsImpl.build(user);
     }
+
+    // Lo invoca el proveedor de autenticación tras un login correcto si el hash tiene un coste inferior al calibrado
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        UserApp user = userRepository.findByNaturalEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con correo electrónico:" + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        return UserDetailsImpl.build(user);
+    }
 }
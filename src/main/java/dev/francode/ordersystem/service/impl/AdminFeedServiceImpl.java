@@ -0,0 +1,154 @@
+package dev.francode.ordersystem.service.impl;
+
+import dev.francode.ordersystem.dto.feed.AdminFeedMessage;
+import dev.francode.ordersystem.dto.feed.LowStockEvent;
+import dev.francode.ordersystem.dto.feed.OrderFeedEvent;
+import dev.francode.ordersystem.dto.product.ProductNameView;
+import dev.francode.ordersystem.entity.Order;
+import dev.francode.ordersystem.repository.ProductRepository;
+import dev.francode.ordersystem.service.interfaces.AdminFeedService;
+import dev.francode.ordersystem.service.interfaces.InventoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Feed del back-office sobre STOMP. El camino del pedido solo deja el evento en un mapa al confirmar;
+// una tarea periódica agrupa la ventana (un pedido con varios cambios sale una vez, con su último estado),
+// consulta el stock de los productos tocados y publica un único mensaje. Los clientes lentos no frenan
+// nada aquí: el broker limita el búfer de cada sesión (ver WebSocketConfig).
+@Service
+public class AdminFeedServiceImpl implements AdminFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminFeedServiceImpl.class);
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final int lowStockThreshold;
+
+    private final ConcurrentHashMap<Long, OrderFeedEvent> pendingOrders = new ConcurrentHashMap<>();
+    private final Set<Long> pendingProducts = ConcurrentHashMap.newKeySet();
+
+    // Productos ya anunciados por debajo del umbral; salen al reponerse para volver a avisar en el siguiente cruce.
+    // Solo lo usa la tarea de publicación.
+    private final Set<Long> lowStockProducts = new HashSet<>();
+
+    public AdminFeedServiceImpl(SimpMessageSendingOperations messagingTemplate,
+                                ProductRepository productRepository,
+                                InventoryService inventoryService,
+                                @Value("${francode.app.feed.low-stock-threshold}") int lowStockThreshold) {
+        this.messagingTemplate = messagingTemplate;
+        this.productRepository = productRepository;
+        this.inventoryService = inventoryService;
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    @Override
+    public void orderCreated(Order order) {
+        enqueue(event(order, true));
+    }
+
+    @Override
+    public void orderStatusChanged(Order order) {
+        enqueue(event(order, false));
+    }
+
+    @Override
+    public void stockChanged(Collection<Long> productIds) {
+        List<Long> changed = List.copyOf(productIds);
+        afterCommit(() -> pendingProducts.addAll(changed));
+    }
+
+    @Scheduled(fixedDelayString = "${francode.app.feed.window-ms}")
+    public void publish() {
+        List<OrderFeedEvent> orders = drainOrders();
+        List<LowStockEvent> lowStock = drainLowStock();
+        if (orders.isEmpty() && lowStock.isEmpty()) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSend(DESTINATION, new AdminFeedMessage(LocalDateTime.now(), orders, lowStock));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo publicar el feed de administración: {}", e.getMessage());
+        }
+    }
+
+    // Los datos se copian dentro de la transacción; al confirmar la entidad ya no se toca
+    private static OrderFeedEvent event(Order order, boolean created) {
+        return new OrderFeedEvent(order.getId(), order.getUser().getId(), order.getStatus(), order.getTotal(),
+                order.getDate(), created);
+    }
+
+    private void enqueue(OrderFeedEvent event) {
+        afterCommit(() -> pendingOrders.merge(event.orderId(), event, OrderFeedEvent::mergedWith));
+    }
+
+    private List<OrderFeedEvent> drainOrders() {
+        List<OrderFeedEvent> orders = new ArrayList<>();
+        for (Long orderId : List.copyOf(pendingOrders.keySet())) {
+            OrderFeedEvent event = pendingOrders.remove(orderId);
+            if (event != null) {
+                orders.add(event);
+            }
+        }
+        orders.sort(Comparator.comparing(OrderFeedEvent::orderId));
+        return orders;
+    }
+
+    private List<LowStockEvent> drainLowStock() {
+        List<Long> productIds = new ArrayList<>();
+        for (Long productId : List.copyOf(pendingProducts)) {
+            if (pendingProducts.remove(productId)) {
+                productIds.add(productId);
+            }
+        }
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> stock = new HashMap<>(productRepository.findStock(productIds));
+        stock.putAll(inventoryService.getStockOverrides(productIds));
+
+        List<Long> crossed = new ArrayList<>();
+        for (Long productId : productIds) {
+            Integer current = stock.get(productId);
+            if (current == null || current > lowStockThreshold) {
+                lowStockProducts.remove(productId); // repuesto o borrado
+            } else if (lowStockProducts.add(productId)) {
+                crossed.add(productId);
+            }
+        }
+        if (crossed.isEmpty()) {
+            return List.of();
+        }
+
+        List<LowStockEvent> events = new ArrayList<>();
+        for (ProductNameView product : productRepository.findNamesByIdIn(crossed)) {
+            events.add(new LowStockEvent(product.id(), product.name(), stock.get(product.id())));
+        }
+        events.sort(Comparator.comparing(LowStockEvent::productId));
+        return events;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
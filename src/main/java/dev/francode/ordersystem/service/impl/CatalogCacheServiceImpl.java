@@ -0,0 +1,207 @@
+package dev.francode.ordersystem.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.francode.ordersystem.service.interfaces.CatalogCacheService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Caché en proceso de respuestas del catálogo, guardadas serializadas (JSON) y acotadas por bytes y TTL.
+// Un índice producto -> claves permite invalidar solo las entradas afectadas por un cambio de imagen o de datos.
+// El stock no depende de estas entradas: ProductServiceImpl lo sustituye en cada acierto por el actual, así que
+// las compras no invalidan nada y tampoco importa en qué instancia se hicieron. Las demás invalidaciones son
+// locales; con varias instancias, un cambio administrativo hecho en otra se ve al expirar ttl-ms.
+@Service
+public class CatalogCacheServiceImpl implements CatalogCacheService {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Entry> cache;
+    // Producto -> claves que lo contienen, con la entrada indexada: el listener de borrado (asíncrono) solo
+    // desindexa si la clave sigue apuntando a la entrada borrada, no a una recargada después
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<String, Entry>> keysByProduct = new ConcurrentHashMap<>();
+
+    // Reloj de invalidaciones y último instante en que se invalidó cada producto o prefijo. Una carga solo se
+    // guarda si ninguno de sus productos ni su prefijo se invalidó mientras se cargaba: una compra de otros
+    // productos no impide guardar las cargas en curso
+    private final AtomicLong clock = new AtomicLong();
+    private final ConcurrentHashMap<Long, Long> productInvalidatedAt = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> prefixInvalidatedAt = new ConcurrentHashMap<>();
+
+    public CatalogCacheServiceImpl(ObjectMapper objectMapper,
+                                   @Value("${francode.app.catalog-cache.max-bytes}") long maxBytes,
+                                   @Value("${francode.app.catalog-cache.ttl-ms}") long ttlMs) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Entry entry) -> entry.data().length)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (key != null && entry != null) {
+                        unindex(key, entry);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public <T> T get(String key, TypeReference<T> type, Supplier<T> loader, Function<T, Collection<Long>> productIds) {
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return deserialize(cached.data(), type);
+        }
+
+        long loadedAt = clock.get();
+        T value = loader.get();
+        Entry entry = new Entry(serialize(value), Set.copyOf(productIds.apply(value)));
+
+        if (isCurrent(key, entry, loadedAt)) {
+            entry.productIds().forEach(productId ->
+                    keysByProduct.computeIfAbsent(productId, id -> new ConcurrentHashMap<>()).put(key, entry));
+            cache.put(key, entry);
+            // Una invalidación concurrente pudo pasar entre la comprobación y el put
+            if (!isCurrent(key, entry, loadedAt)) {
+                cache.asMap().remove(key, entry);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void invalidateProducts(Collection<Long> productIds) {
+        List<Long> ids = List.copyOf(productIds);
+        afterCommitToo(() -> ids.forEach(this::evictProduct));
+    }
+
+    @Override
+    public void invalidateProductListings(Collection<Long> productIds) {
+        List<Long> ids = List.copyOf(productIds);
+        afterCommitToo(() -> {
+            ids.forEach(this::evictProduct);
+            evictPrefix(PRODUCT_PAGE_PREFIX);
+        });
+    }
+
+    @Override
+    public void invalidateCategories() {
+        afterCommitToo(() -> {
+            evictPrefix(CATEGORY_PAGE_PREFIX);
+            evictPrefix(PRODUCT_PAGE_PREFIX);
+            evictPrefix(PRODUCT_PREFIX);
+        });
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", cache.estimatedSize());
+        result.put("bytes", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("indexedProducts", keysByProduct.size());
+        return result;
+    }
+
+    private boolean isCurrent(String key, Entry entry, long loadedAt) {
+        for (Map.Entry<String, Long> prefix : prefixInvalidatedAt.entrySet()) {
+            if (prefix.getValue() > loadedAt && key.startsWith(prefix.getKey())) {
+                return false;
+            }
+        }
+        for (Long productId : entry.productIds()) {
+            if (productInvalidatedAt.getOrDefault(productId, 0L) > loadedAt) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void evictProduct(Long productId) {
+        productInvalidatedAt.put(productId, clock.incrementAndGet());
+        cache.invalidate(PRODUCT_PREFIX + productId);
+        Map<String, Entry> keys = keysByProduct.remove(productId);
+        if (keys != null) {
+            cache.invalidateAll(keys.keySet());
+        }
+    }
+
+    private void evictPrefix(String prefix) {
+        prefixInvalidatedAt.put(prefix, clock.incrementAndGet());
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private void unindex(String key, Entry entry) {
+        for (Long productId : entry.productIds()) {
+            keysByProduct.computeIfPresent(productId, (id, keys) -> {
+                keys.remove(key, entry);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    // Se invalida ya y otra vez tras el commit, para descartar lo que se haya cargado con datos sin confirmar
+    private static void afterCommitToo(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo serializar la entrada de caché", e);
+        }
+    }
+
+    private <T> T deserialize(byte[] data, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(data, type);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer la entrada de caché", e);
+        }
+    }
+
+    // Igualdad por identidad: el índice compara la entrada concreta, no su contenido
+    private static final class Entry {
+
+        private final byte[] data;
+        private final Set<Long> productIds;
+
+        Entry(byte[] data, Set<Long> productIds) {
+            this.data = data;
+            this.productIds = productIds;
+        }
+
+        byte[] data() {
+            return data;
+        }
+
+        Set<Long> productIds() {
+            return productIds;
+        }
+    }
+}
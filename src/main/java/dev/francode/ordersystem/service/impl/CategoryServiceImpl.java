@@ -1,30 +1,45 @@
 package dev.francode.ordersystem.service.impl;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import dev.francode.ordersystem.dto.common.CachedPage;
+import dev.francode.ordersystem.dto.common.ResourceVersion;
 import dev.francode.ordersystem.dto.category.CategoryRequest;
 import dev.francode.ordersystem.dto.category.CategoryResponse;
 import dev.francode.ordersystem.entity.Category;
 import dev.francode.ordersystem.exceptions.custom.ValidationException;
 import dev.francode.ordersystem.mapper.CategoryMapper;
 import dev.francode.ordersystem.repository.CategoryRepository;
+import dev.francode.ordersystem.service.interfaces.CatalogCacheService;
 import dev.francode.ordersystem.service.interfaces.CategoryService;
+import dev.francode.ordersystem.service.interfaces.ProductFacetService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final CatalogCacheService catalogCacheService;
+    private final ProductFacetService productFacetService;
+
+    private static final TypeReference<CachedPage<CategoryResponse>> CATEGORY_PAGE_TYPE = new TypeReference<>() {
+    };
 
     @Override
     @Transactional
     public CategoryResponse createCategory(CategoryRequest request) {
         Category category = categoryMapper.toEntity(request);
-        return categoryMapper.toResponse(categoryRepository.save(category));
+        CategoryResponse response = categoryMapper.toResponse(categoryRepository.save(category));
+        catalogCacheService.invalidateCategories();
+        return response;
     }
 
     @Override
@@ -35,7 +50,10 @@ public class CategoryServiceImpl implements CategoryService {
 
         category.setName(request.getName());
 
-        return categoryMapper.toResponse(categoryRepository.save(category));
+        CategoryResponse response = categoryMapper.toResponse(categoryRepository.save(category));
+        productFacetService.renameCategory(categoryId, category.getName());
+        catalogCacheService.invalidateCategories();
+        return response;
     }
 
     @Override
@@ -44,6 +62,7 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ValidationException("Categoría no encontrada"));
         categoryRepository.delete(category);
+        catalogCacheService.invalidateCategories();
     }
 
     @Override
@@ -53,9 +72,24 @@ public class CategoryServiceImpl implements CategoryService {
         return categoryMapper.toResponse(category);
     }
 
+    @Override
+    public ResourceVersion getCategoryVersion(Long categoryId) {
+        // La categoría sale de la caché de segundo nivel: comprobar la versión no cuesta ninguna consulta
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new ValidationException("Categoría no encontrada"));
+        return ResourceVersion.of("categoria", categoryId, true, category.getUpdatedAt());
+    }
+
     @Override
     public Page<CategoryResponse> getAllCategories(Pageable pageable) {
-        return categoryRepository.findAll(pageable)
-                .map(categoryMapper::toResponse);
+        CachedPage<CategoryResponse> page = catalogCacheService.get(
+                CatalogCacheService.CATEGORY_PAGE_PREFIX + pageable, CATEGORY_PAGE_TYPE,
+                () -> {
+                    Page<CategoryResponse> categories = categoryRepository.findAll(pageable)
+                            .map(categoryMapper::toResponse);
+                    return new CachedPage<>(categories.getContent(), categories.getTotalElements(), categories.hasNext(), true);
+                },
+                cached -> List.of());
+        return new PageImpl<>(page.content(), pageable, page.total());
     }
 }
\ No newline at end of file
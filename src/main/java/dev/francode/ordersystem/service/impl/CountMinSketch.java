@@ -0,0 +1,74 @@
+package dev.francode.ordersystem.service.impl;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Count-min: depth filas de width contadores; la estimación es el mínimo de las filas y nunca queda por
+// debajo del valor real mientras los totales por clave no sean negativos (las cancelaciones restan lo sumado).
+// Es lineal: la suma de los sketches de varios tramos es el sketch de la ventana completa. No es thread-safe.
+final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final long[] counters;
+
+    CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counters = new long[depth * width];
+    }
+
+    void add(long key, long delta) {
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + column(key, row)] += delta;
+        }
+    }
+
+    long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + column(key, row)]);
+        }
+        return estimate;
+    }
+
+    // sign = 1 suma otro sketch de las mismas dimensiones, -1 lo resta
+    void merge(CountMinSketch other, int sign) {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += sign * other.counters[i];
+        }
+    }
+
+    void clear() {
+        Arrays.fill(counters, 0);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        for (long counter : counters) {
+            out.writeLong(counter);
+        }
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = in.readLong();
+        }
+    }
+
+    // Una función hash distinta por fila a partir de la misma mezcla de la clave
+    private int column(long key, int row) {
+        long hash = mix(key + row * 0x9e3779b97f4a7c15L);
+        return (int) Math.floorMod(hash, (long) width);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
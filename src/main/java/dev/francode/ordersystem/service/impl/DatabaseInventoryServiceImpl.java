@@ -0,0 +1,120 @@
+package dev.francode.ordersystem.service.impl;
+
+import dev.francode.ordersystem.repository.ProductRepository;
+import dev.francode.ordersystem.service.interfaces.InventoryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Modo por defecto: cada reserva es un UPDATE condicionado sobre Productos, dentro de la transacción del pedido.
+// Los productos "calientes" (francode.app.inventory.hot-products) reparten su stock en varios fragmentos
+// para que las compras simultáneas no se serialicen sobre una única fila.
+// Orden de bloqueo: primero los productos normales (un lote ordenado por id) y después los calientes por id;
+// el reequilibrio de un producto caliente bloquea su fila antes que sus fragmentos.
+@Service
+@ConditionalOnProperty(name = "francode.app.inventory.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseInventoryServiceImpl implements InventoryService {
+
+    private final ProductRepository productRepository;
+    private final Set<Long> hotProducts;
+    private final int hotShards;
+
+    public DatabaseInventoryServiceImpl(ProductRepository productRepository,
+                                        @Value("${francode.app.inventory.hot-products:}") Set<Long> hotProducts,
+                                        @Value("${francode.app.inventory.hot-shards:8}") int hotShards) {
+        this.productRepository = productRepository;
+        this.hotProducts = Set.copyOf(hotProducts);
+        this.hotShards = Math.max(1, hotShards);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createShards() {
+        productRepository.createShards(hotProducts, hotShards);
+    }
+
+    @Override
+    public List<Long> reserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> regular = new LinkedHashMap<>();
+        Map<Long, Integer> hot = new TreeMap<>();
+        quantities.forEach((productId, quantity) ->
+                (hotProducts.contains(productId) ? hot : regular).put(productId, quantity));
+
+        List<Long> shortProducts = productRepository.decrementStock(regular);
+        if (!shortProducts.isEmpty()) {
+            return shortProducts;
+        }
+
+        Map<Long, Integer> reservedShards = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> line : hot.entrySet()) {
+            int shard = decrementHot(line.getKey(), line.getValue());
+            if (shard < 0) {
+                // Todo o nada: se devuelve lo ya descontado al mismo fragmento, cuya fila ya está bloqueada
+                reservedShards.forEach((productId, reservedShard) ->
+                        releaseToShard(productId, reservedShard, hot.get(productId)));
+                productRepository.incrementStock(regular);
+                return List.of(line.getKey());
+            }
+            reservedShards.put(line.getKey(), shard);
+        }
+        return List.of();
+    }
+
+    @Override
+    public void release(Map<Long, Integer> quantities) {
+        Map<Long, Integer> regular = new LinkedHashMap<>();
+        Map<Long, Integer> hot = new TreeMap<>();
+        quantities.forEach((productId, quantity) ->
+                (hotProducts.contains(productId) ? hot : regular).put(productId, quantity));
+        productRepository.incrementStock(regular);
+        hot.forEach(this::releaseHot);
+    }
+
+    @Override
+    public Map<Long, Integer> getStockOverrides(Collection<Long> productIds) {
+        List<Long> hot = productIds.stream().filter(hotProducts::contains).toList();
+        return hot.isEmpty() ? Map.of() : productRepository.findStock(hot);
+    }
+
+    @Override
+    public void resetStock(Long productId, Integer stock) {
+        // El valor administrativo queda en la columna; se vuelve a repartir en la siguiente compra
+        if (hotProducts.contains(productId)) {
+            productRepository.clearShards(productId);
+            productRepository.createShards(List.of(productId), hotShards);
+        }
+    }
+
+    @Override
+    public void removeProduct(Long productId) {
+        if (hotProducts.contains(productId)) {
+            productRepository.deleteShards(productId);
+        }
+    }
+
+    // Primero un fragmento al azar (solo bloquea esa fila); si no alcanza, se reequilibra bajo bloqueo.
+    // Devuelve el fragmento descontado, o -1 si no hay stock
+    private int decrementHot(Long productId, int quantity) {
+        int shard = ThreadLocalRandom.current().nextInt(hotShards);
+        if (productRepository.decrementShard(productId, shard, quantity)) {
+            return shard;
+        }
+        // Tras reequilibrar, el fragmento elegido sigue bloqueado por esta transacción
+        return productRepository.rebalanceShards(productId, hotShards, quantity) ? shard : -1;
+    }
+
+    private void releaseHot(Long productId, int quantity) {
+        releaseToShard(productId, ThreadLocalRandom.current().nextInt(hotShards), quantity);
+    }
+
+    private void releaseToShard(Long productId, int shard, int quantity) {
+        if (!productRepository.incrementShard(productId, shard, quantity)) {
+            // Aún sin fragmentos: se devuelve a la columna
+            productRepository.incrementStock(Map.of(productId, quantity));
+        }
+    }
+}
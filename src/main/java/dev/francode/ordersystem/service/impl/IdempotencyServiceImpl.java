@@ -0,0 +1,233 @@
+package dev.francode.ordersystem.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.francode.ordersystem.dto.order.OrderRequest;
+import dev.francode.ordersystem.dto.order.OrderResponse;
+import dev.francode.ordersystem.entity.IdempotencyRecord;
+import dev.francode.ordersystem.exceptions.custom.IdempotencyConflictException;
+import dev.francode.ordersystem.exceptions.custom.ValidationException;
+import dev.francode.ordersystem.repository.IdempotencyRecordRepository;
+import dev.francode.ordersystem.service.interfaces.IdempotencyService;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final long IN_FLIGHT_WAIT_SECONDS = 30;
+    private static final String KEY_REUSED_MESSAGE =
+            "La Idempotency-Key ya se usó con un pedido distinto; genere una clave nueva para este pedido";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+
+    // Respuestas recientes con la huella de su petición, acotadas en tamaño y con expiración
+    private final Cache<String, Stored> responses;
+
+    // Peticiones en curso: los duplicados concurrentes con el mismo cuerpo esperan el mismo resultado
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${francode.app.idempotency.ttl-ms}") long ttlMs,
+                                  @Value("${francode.app.idempotency.max-entries}") long maxEntries) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public OrderResponse execute(String scope, String idempotencyKey, OrderRequest request,
+                                 Supplier<OrderResponse> action) {
+        if (!StringUtils.hasText(idempotencyKey)) {
+            return action.get();
+        }
+        String key = key(scope, idempotencyKey);
+        String fingerprint = fingerprint(request);
+
+        Stored cached = responses.getIfPresent(key);
+        if (cached != null) {
+            return cached.responseFor(fingerprint);
+        }
+
+        InFlight own = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            checkFingerprint(running.fingerprint, fingerprint);
+            return await(running.result);
+        }
+
+        try {
+            Stored stored = findStored(key).orElseGet(() -> executeAndStore(key, fingerprint, action));
+            responses.put(key, stored);
+            OrderResponse response = stored.responseFor(fingerprint);
+            own.result.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            own.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    @Override
+    public String fingerprint(OrderRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la petición", e);
+        }
+    }
+
+    @Override
+    public Optional<OrderResponse> findResponse(String scope, String idempotencyKey, String fingerprint) {
+        String key = key(scope, idempotencyKey);
+        Stored cached = responses.getIfPresent(key);
+        return Optional.ofNullable(cached).or(() -> findStored(key))
+                .map(stored -> stored.responseFor(fingerprint));
+    }
+
+    @Override
+    public void store(String scope, String idempotencyKey, String fingerprint, OrderResponse response) {
+        String key = key(scope, idempotencyKey);
+        saveRecord(key, fingerprint, response);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                responses.put(key, new Stored(fingerprint, response));
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${francode.app.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (deleted > 0) {
+            log.info("Claves de idempotencia expiradas eliminadas: {}", deleted);
+        }
+    }
+
+    private Stored executeAndStore(String key, String fingerprint, Supplier<OrderResponse> action) {
+        try {
+            // El pedido y su clave se confirman en la misma transacción
+            return transactionTemplate.execute(status -> {
+                OrderResponse response = action.get();
+                saveRecord(key, fingerprint, response);
+                return new Stored(fingerprint, response);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia registró la misma clave a la vez; su pedido es el válido
+            return findStored(key).orElseThrow(() -> e);
+        }
+    }
+
+    private void saveRecord(String key, String fingerprint, OrderResponse response) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(key);
+        record.setOrderId(response.getId());
+        record.setRequestFingerprint(fingerprint);
+        record.setResponse(serialize(response));
+        idempotencyRecordRepository.saveAndFlush(record);
+    }
+
+    private static String key(String scope, String idempotencyKey) {
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("La cabecera Idempotency-Key no puede superar " + MAX_KEY_LENGTH + " caracteres");
+        }
+        return scope + ":" + idempotencyKey;
+    }
+
+    private Optional<Stored> findStored(String key) {
+        return idempotencyRecordRepository.findByIdempotencyKey(key)
+                .filter(record -> record.getCreatedAt() == null
+                        || record.getCreatedAt().isAfter(LocalDateTime.now().minus(ttl)))
+                .map(record -> new Stored(record.getRequestFingerprint(), deserialize(record.getResponse())));
+    }
+
+    // Sin huella registrada (claves anteriores a la columna) se acepta como antes
+    private static void checkFingerprint(String registered, String fingerprint) {
+        if (registered != null && !Objects.equals(registered, fingerprint)) {
+            throw new IdempotencyConflictException(KEY_REUSED_MESSAGE);
+        }
+    }
+
+    private OrderResponse await(CompletableFuture<OrderResponse> running) {
+        try {
+            return running.get(IN_FLIGHT_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ValidationException("La petición original con esta Idempotency-Key sigue en curso");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String serialize(OrderResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta del pedido", e);
+        }
+    }
+
+    private OrderResponse deserialize(String json) {
+        try {
+            return objectMapper.readValue(json, OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer la respuesta guardada del pedido", e);
+        }
+    }
+
+    private record Stored(String fingerprint, OrderResponse response) {
+
+        private OrderResponse responseFor(String requestFingerprint) {
+            checkFingerprint(fingerprint, requestFingerprint);
+            return response;
+        }
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<OrderResponse> result) {
+    }
+}
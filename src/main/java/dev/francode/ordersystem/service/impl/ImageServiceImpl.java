@@ -9,6 +9,7 @@ import dev.francode.ordersystem.entity.Product;
 import dev.francode.ordersystem.exceptions.custom.ValidationException;
 import dev.francode.ordersystem.repository.ImageRepository;
 import dev.francode.ordersystem.repository.ProductRepository;
+import dev.francode.ordersystem.service.interfaces.CatalogCacheService;
 import dev.francode.ordersystem.service.interfaces.ImageService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +27,7 @@ public class ImageServiceImpl implements ImageService {
     private final ProductRepository productRepository;
     private final ImageRepository imageRepository;
     private final Cloudinary cloudinary;
+    private final CatalogCacheService catalogCacheService;
 
     private static final List<String> ALLOWED_CONTENT_TYPES = List.of(
             "image/jpeg", "image/png", "image/webp"
@@ -53,6 +55,7 @@ public class ImageServiceImpl implements ImageService {
         image.setProduct(product);
 
         imageRepository.save(image);
+        catalogCacheService.invalidateProducts(List.of(product.getId()));
 
         return ImageResponse.builder()
                 .url(uploadedUrl)
@@ -0,0 +1,249 @@
+package dev.francode.ordersystem.service.impl;
+
+import dev.francode.ordersystem.repository.ProductRepository;
+import dev.francode.ordersystem.service.interfaces.InventoryService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Libro de reservas en memoria delante de Productos.stock.
+// Las reservas se admiten o rechazan con CAS por producto y los deltas netos se vuelcan por lotes.
+// Pensado para un único nodo: si varias instancias comparten la BD debe usarse el modo "database".
+// Cada cambio administrativo del stock abre una época nueva del producto: lo reservado o pendiente de volcar
+// en la anterior se descarta, porque el valor administrativo ya lo sustituye.
+@Service
+@ConditionalOnProperty(name = "francode.app.inventory.mode", havingValue = "ledger")
+public class LedgerInventoryServiceImpl implements InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerInventoryServiceImpl.class);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Época vigente de cada producto
+    private final ConcurrentHashMap<Long, Epoch> epochs = new ConcurrentHashMap<>();
+
+    public LedgerInventoryServiceImpl(ProductRepository productRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Long, Integer> stock = productRepository.findAllStock();
+        epochs.clear();
+        stock.forEach((productId, value) -> epochs.put(productId, new Epoch(value)));
+        log.info("Libro de inventario reconstruido con {} productos", stock.size());
+    }
+
+    @Override
+    public List<Long> reserve(Map<Long, Integer> quantities) {
+        loadMissing(quantities.keySet());
+
+        // Cada línea queda ligada a la época en la que se reservó; si el stock se reinicia antes de
+        // confirmar, su delta y su devolución caen en la época vieja y se descartan con ella
+        Map<Epoch, Integer> reserved = new LinkedHashMap<>();
+        List<Long> shortProducts = new ArrayList<>();
+
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Epoch epoch = epochs.get(line.getKey());
+            if (epoch != null && tryDecrement(epoch.available, line.getValue())) {
+                reserved.put(epoch, line.getValue());
+            } else {
+                shortProducts.add(line.getKey());
+            }
+        }
+
+        if (!shortProducts.isEmpty()) {
+            reserved.forEach((epoch, quantity) -> epoch.available.addAndGet(quantity));
+            return shortProducts;
+        }
+
+        // Si la transacción del pedido se revierte, lo reservado vuelve a estar disponible
+        afterCompletion(
+                () -> reserved.forEach((epoch, quantity) -> epoch.pending.addAndGet(-quantity)),
+                () -> reserved.forEach((epoch, quantity) -> epoch.available.addAndGet(quantity)));
+        return List.of();
+    }
+
+    @Override
+    public void release(Map<Long, Integer> quantities) {
+        Map<Epoch, Integer> released = new LinkedHashMap<>();
+        quantities.forEach((productId, quantity) -> {
+            Epoch epoch = epochs.get(productId);
+            if (epoch != null) {
+                released.merge(epoch, quantity, Integer::sum);
+            }
+        });
+        afterCompletion(() -> released.forEach((epoch, quantity) -> {
+            epoch.available.addAndGet(quantity);
+            epoch.pending.addAndGet(quantity);
+        }), null);
+    }
+
+    @Override
+    public Map<Long, Integer> getStockOverrides(Collection<Long> productIds) {
+        Map<Long, Integer> stock = new HashMap<>();
+        for (Long productId : productIds) {
+            Epoch epoch = epochs.get(productId);
+            if (epoch != null) {
+                stock.put(productId, epoch.available.get());
+            }
+        }
+        return stock;
+    }
+
+    @Override
+    public void resetStock(Long productId, Integer stock) {
+        // El valor administrativo sustituye a lo reservado hasta ahora (y a los fragmentos del modo database)
+        productRepository.clearShards(productId);
+        Epoch previous = beginReset(productId);
+        afterCompletion(() -> epochs.put(productId, new Epoch(stock)), () -> cancelReset(previous));
+    }
+
+    @Override
+    public void removeProduct(Long productId) {
+        productRepository.deleteShards(productId);
+        Epoch previous = beginReset(productId);
+        afterCompletion(() -> epochs.remove(productId), () -> cancelReset(previous));
+    }
+
+    // Programático y no @Transactional: también se invoca desde flushOnShutdown, donde el proxy no interviene
+    @Scheduled(fixedDelayString = "${francode.app.inventory.flush-interval-ms:500}")
+    public void flush() {
+        Map<Long, Epoch> drained = new HashMap<>();
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (Map.Entry<Long, Epoch> entry : epochs.entrySet()) {
+            int delta = entry.getValue().pending.getAndSet(0);
+            if (delta != 0) {
+                drained.put(entry.getKey(), entry.getValue());
+                deltas.put(entry.getKey(), delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> stale = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productRepository.incrementStock(deltas);
+                // Con las filas ya bloqueadas: un reinicio en curso o confirmado fija el stock por su cuenta,
+                // así que sus deltas se deshacen dentro de esta misma transacción
+                drained.forEach((productId, epoch) -> {
+                    if (epoch.resets.get() > 0 || epochs.get(productId) != epoch) {
+                        stale.put(productId, -deltas.get(productId));
+                    }
+                });
+                productRepository.incrementStock(stale);
+            });
+        } catch (RuntimeException e) {
+            // Se reintenta en el siguiente ciclo
+            drained.forEach((productId, epoch) -> epoch.pending.addAndGet(deltas.get(productId)));
+            log.error("No se pudo volcar el stock de {} productos: {}", deltas.size(), e.getMessage());
+            throw e;
+        }
+
+        // Si el reinicio acaba revirtiéndose, la época sigue vigente y sus deltas vuelven a volcarse
+        stale.keySet().forEach(productId -> drained.get(productId).pending.addAndGet(deltas.get(productId)));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            Map<Long, Integer> pending = new HashMap<>();
+            epochs.forEach((productId, epoch) -> {
+                if (epoch.pending.get() != 0) {
+                    pending.put(productId, epoch.pending.get());
+                }
+            });
+            log.error("Deltas de stock sin volcar al apagar: {}", pending);
+        }
+    }
+
+    // Marca la época antes de confirmar: desde aquí el volcado no aplica sus deltas
+    private Epoch beginReset(Long productId) {
+        Epoch previous = epochs.get(productId);
+        if (previous != null) {
+            previous.resets.incrementAndGet();
+        }
+        return previous;
+    }
+
+    private static void cancelReset(Epoch previous) {
+        if (previous != null) {
+            previous.resets.decrementAndGet();
+        }
+    }
+
+    private void loadMissing(Collection<Long> productIds) {
+        List<Long> missing = productIds.stream()
+                .filter(productId -> !epochs.containsKey(productId))
+                .toList();
+        if (!missing.isEmpty()) {
+            productRepository.findStock(missing)
+                    .forEach((productId, stock) -> epochs.putIfAbsent(productId, new Epoch(stock)));
+        }
+    }
+
+    private static boolean tryDecrement(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private static void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else if (onRollback != null) {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    // Identidad de la época: se compara por referencia
+    private static final class Epoch {
+
+        // Stock disponible tal como lo ve la aplicación
+        private final AtomicInteger available;
+
+        // Deltas confirmados pendientes de volcar a Productos.stock
+        private final AtomicInteger pending = new AtomicInteger();
+
+        // Reinicios sin confirmar que cerrarán esta época
+        private final AtomicInteger resets = new AtomicInteger();
+
+        Epoch(int available) {
+            this.available = new AtomicInteger(available);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package dev.francode.ordersystem.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.francode.ordersystem.dto.order.OrderAdminFilter;
+import dev.francode.ordersystem.dto.order.OrderExportRow;
+import dev.francode.ordersystem.entity.enums.EExportFormat;
+import dev.francode.ordersystem.exceptions.custom.ValidationException;
+import dev.francode.ordersystem.repository.OrderRepository;
+import dev.francode.ordersystem.service.interfaces.OrderExportService;
+import dev.francode.ordersystem.service.spec.OrderSpecifications;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Volcado de pedidos para contabilidad: una sola consulta en una transacción de solo lectura (una foto
+// coherente aunque entren pedidos mientras tanto), leída con un cursor y escrita fila a fila.
+// CSV: una fila por línea de pedido. NDJSON: un objeto por pedido con sus líneas.
+@Service
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final String CSV_HEADER = "pedido,fecha,estado,total,usuario,correo,producto,nombre_producto,cantidad,precio,subtotal";
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    public OrderExportServiceImpl(OrderRepository orderRepository, ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public EExportFormat prepareExport(OrderAdminFilter filter, String format) {
+        if (!filter.isDateRangeValid()) {
+            throw new ValidationException("Rango de fechas inválido");
+        }
+        if (!StringUtils.hasText(format)) {
+            return EExportFormat.CSV;
+        }
+        try {
+            return EExportFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Formato de exportación inválido: " + format + " (csv o ndjson)");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrders(OrderAdminFilter filter, EExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try (Stream<OrderExportRow> rows = orderRepository.streamExportRows(OrderSpecifications.forAdminFilter(filter))) {
+            if (format == EExportFormat.CSV) {
+                writeCsv(rows.iterator(), writer);
+            } else {
+                writeNdjson(rows.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeCsv(Iterator<OrderExportRow> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            OrderExportRow row = rows.next();
+            writer.write(String.valueOf(row.orderId()));
+            writer.write(',');
+            writer.write(String.valueOf(row.date()));
+            writer.write(',');
+            writer.write(row.status().name());
+            writer.write(',');
+            writer.write(row.total().toPlainString());
+            writer.write(',');
+            writer.write(String.valueOf(row.userId()));
+            writer.write(',');
+            writeCsvText(writer, row.userEmail());
+            writer.write(',');
+            writer.write(String.valueOf(row.productId()));
+            writer.write(',');
+            writeCsvText(writer, row.productName());
+            writer.write(',');
+            writer.write(String.valueOf(row.quantity()));
+            writer.write(',');
+            writer.write(row.price().toPlainString());
+            writer.write(',');
+            writer.write(row.subTotal().toPlainString());
+            writer.write('\n');
+        }
+    }
+
+    // RFC 4180: entre comillas solo si hace falta, con las comillas internas duplicadas
+    private static void writeCsvText(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    // Las filas llegan ordenadas por pedido: se abre un objeto al cambiar de pedido y se cierra el anterior,
+    // así que en memoria solo está la fila actual
+    private void writeNdjson(Iterator<OrderExportRow> rows, Writer writer) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(writer)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Cada pedido termina en su propio salto de línea, sin el separador por defecto entre raíces
+            json.setRootValueSeparator(null);
+            Long currentOrder = null;
+            while (rows.hasNext()) {
+                OrderExportRow row = rows.next();
+                if (!row.orderId().equals(currentOrder)) {
+                    if (currentOrder != null) {
+                        endOrder(json);
+                    }
+                    currentOrder = row.orderId();
+                    json.writeStartObject();
+                    json.writeNumberField("id", row.orderId());
+                    json.writeStringField("date", row.date().toString());
+                    json.writeStringField("status", row.status().name());
+                    json.writeNumberField("total", row.total());
+                    json.writeNumberField("userId", row.userId());
+                    json.writeStringField("userEmail", row.userEmail());
+                    json.writeArrayFieldStart("lines");
+                }
+                json.writeStartObject();
+                json.writeNumberField("productId", row.productId());
+                json.writeStringField("productName", row.productName());
+                json.writeNumberField("quantity", row.quantity());
+                json.writeNumberField("price", row.price());
+                json.writeNumberField("subTotal", row.subTotal());
+                json.writeEndObject();
+            }
+            if (currentOrder != null) {
+                endOrder(json);
+            }
+        }
+    }
+
+    private static void endOrder(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+}
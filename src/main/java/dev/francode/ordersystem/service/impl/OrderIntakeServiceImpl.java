@@ -0,0 +1,335 @@
+package dev.francode.ordersystem.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.francode.ordersystem.dto.order.*;
+import dev.francode.ordersystem.entity.enums.EStatusIntake;
+import dev.francode.ordersystem.exceptions.custom.IdempotencyConflictException;
+import dev.francode.ordersystem.exceptions.custom.ResourceNotFoundException;
+import dev.francode.ordersystem.exceptions.custom.ServiceBusyException;
+import dev.francode.ordersystem.exceptions.custom.ValidationException;
+import dev.francode.ordersystem.service.interfaces.IdempotencyService;
+import dev.francode.ordersystem.service.interfaces.OrderIntakeService;
+import dev.francode.ordersystem.service.interfaces.OrderService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Modo de entrada asíncrono: las peticiones se validan y encolan en una cola acotada,
+// y un único escritor confirma los pedidos por grupos (varios pedidos por transacción).
+// La Idempotency-Key se resuelve con IdempotencyService (Pedidos_Idempotencia), igual que en el modo síncrono;
+// el mapa local solo cubre los reintentos que llegan mientras el pedido sigue en cola en esta instancia.
+@Service
+public class OrderIntakeServiceImpl implements OrderIntakeService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeServiceImpl.class);
+
+    private static final long AWAIT_TIMEOUT_SECONDS = 30;
+    private static final String KEY_REUSED_MESSAGE =
+            "La Idempotency-Key ya se usó con un pedido distinto; genere una clave nueva para este pedido";
+
+    private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean async;
+    private final int batchSize;
+    private final BlockingQueue<QueuedOrder> queue;
+
+    private final Cache<String, Ticket> tickets;
+    // Pedidos en cola por clave; la clave se libera al resolverse el ticket
+    private final Cache<String, String> ticketsByIdempotencyKey;
+
+    private ExecutorService writer;
+    private volatile boolean running;
+
+    public OrderIntakeServiceImpl(OrderService orderService,
+                                  IdempotencyService idempotencyService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${francode.app.orders.intake.mode}") String mode,
+                                  @Value("${francode.app.orders.intake.queue-capacity}") int queueCapacity,
+                                  @Value("${francode.app.orders.intake.batch-size}") int batchSize,
+                                  @Value("${francode.app.orders.intake.result-ttl-ms}") long resultTtlMs,
+                                  @Value("${francode.app.orders.intake.max-tracked}") long maxTracked) {
+        this.orderService = orderService;
+        this.idempotencyService = idempotencyService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.async = "async".equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterWrite(Duration.ofMillis(resultTtlMs))
+                .build();
+        this.ticketsByIdempotencyKey = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterWrite(Duration.ofMillis(resultTtlMs))
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!async) {
+            return;
+        }
+        running = true;
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-intake-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.submit(this::drainLoop);
+        log.info("Entrada asíncrona de pedidos activa (lote máximo: {})", batchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.shutdown();
+        if (!writer.awaitTermination(AWAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            writer.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public OrderTicketResponse submit(String scope, Long userId, OrderRequest orderRequest, String idempotencyKey) {
+        if (orderRequest.getProducts() == null || orderRequest.getProducts().isEmpty()) {
+            throw new ValidationException("Debe agregar al menos un producto al pedido");
+        }
+        Set<Long> productIds = new HashSet<>();
+        for (OrderDetailsRequest item : orderRequest.getProducts()) {
+            if (!productIds.add(item.getProductId())) {
+                throw new ValidationException("No se puede repetir el producto con ID " + item.getProductId() + " en el pedido.");
+            }
+        }
+
+        String key = StringUtils.hasText(idempotencyKey) ? idempotencyKey : null;
+        String fingerprint = key != null ? idempotencyService.fingerprint(orderRequest) : null;
+        if (key != null) {
+            // Pedido ya registrado con esta clave (en cualquier instancia o antes de un reinicio): no se encola
+            Optional<OrderResponse> stored = idempotencyService.findResponse(scope, key, fingerprint);
+            if (stored.isPresent()) {
+                Ticket done = new Ticket(UUID.randomUUID().toString(), scope, null, null);
+                tickets.put(done.trackingId, done);
+                done.complete(stored.get());
+                return done.snapshot();
+            }
+        }
+
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), scope, key, fingerprint);
+        tickets.put(ticket.trackingId, ticket);
+
+        // La clave se reclama antes de encolar para que dos reintentos simultáneos no creen dos pedidos
+        String dedupKey = ticket.dedupKey();
+        if (dedupKey != null) {
+            String existing = ticketsByIdempotencyKey.asMap().putIfAbsent(dedupKey, ticket.trackingId);
+            if (existing != null) {
+                tickets.invalidate(ticket.trackingId);
+                Ticket queued = tickets.getIfPresent(existing);
+                if (queued != null && !queued.fingerprint.equals(fingerprint)) {
+                    throw new IdempotencyConflictException(KEY_REUSED_MESSAGE);
+                }
+                return getTicket(scope, existing);
+            }
+        }
+
+        // Contrapresión: con la cola llena se rechaza de inmediato en lugar de acumular hilos
+        if (!queue.offer(new QueuedOrder(ticket, OrderGroupItem.builder()
+                .request(orderRequest)
+                .userId(userId)
+                .build()))) {
+            tickets.invalidate(ticket.trackingId);
+            if (dedupKey != null) {
+                ticketsByIdempotencyKey.asMap().remove(dedupKey, ticket.trackingId);
+            }
+            throw new ServiceBusyException("La cola de pedidos está llena. Intente nuevamente en unos segundos.");
+        }
+
+        return ticket.snapshot();
+    }
+
+    @Override
+    public OrderTicketResponse getTicket(String scope, String trackingId) {
+        return findTicket(scope, trackingId).snapshot();
+    }
+
+    @Override
+    public CompletableFuture<OrderTicketResponse> awaitTicket(String scope, String trackingId) {
+        Ticket ticket = findTicket(scope, trackingId);
+        return ticket.result.copy()
+                .completeOnTimeout(ticket.pending(), AWAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private Ticket findTicket(String scope, String trackingId) {
+        Ticket ticket = tickets.getIfPresent(trackingId);
+        if (ticket == null || !ticket.scope.equals(scope)) {
+            throw new ResourceNotFoundException("Seguimiento de pedido no encontrado");
+        }
+        return ticket;
+    }
+
+    private void drainLoop() {
+        List<QueuedOrder> group = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedOrder first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, batchSize - 1);
+                commitGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el escritor de pedidos", e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void commitGroup(List<QueuedOrder> group) {
+        List<OrderGroupResult> results;
+        try {
+            results = transactionTemplate.execute(status -> createGroup(group));
+        } catch (RuntimeException e) {
+            if (group.size() > 1) {
+                // Un error de BD (p. ej. la misma clave registrada a la vez en otra instancia) revierte el grupo
+                // entero: se reintenta pedido a pedido para que solo falle el afectado
+                log.warn("Grupo de {} pedidos revertido, se confirma uno a uno: {}", group.size(), e.getMessage());
+                group.forEach(queued -> commitGroup(List.of(queued)));
+                return;
+            }
+            log.error("No se pudo confirmar el pedido: {}", e.getMessage());
+            resolve(group.get(0).ticket, OrderGroupResult.builder()
+                    .error("No se pudo registrar el pedido. Intente nuevamente.").build());
+            return;
+        }
+
+        for (int i = 0; i < group.size(); i++) {
+            resolve(group.get(i).ticket, results.get(i));
+        }
+    }
+
+    // Pedidos y claves de idempotencia se confirman en la misma transacción
+    private List<OrderGroupResult> createGroup(List<QueuedOrder> group) {
+        List<OrderGroupResult> results = new ArrayList<>(Collections.nCopies(group.size(), null));
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < group.size(); i++) {
+            Ticket ticket = group.get(i).ticket;
+            // La clave pudo registrarse después de encolar (otra instancia, o el reintento de un grupo revertido)
+            Optional<OrderResponse> stored;
+            try {
+                stored = ticket.idempotencyKey == null
+                        ? Optional.empty()
+                        : idempotencyService.findResponse(ticket.scope, ticket.idempotencyKey, ticket.fingerprint);
+            } catch (IdempotencyConflictException e) {
+                // Registrada con otro pedido: se rechaza este ticket, el resto del grupo sigue
+                results.set(i, OrderGroupResult.builder().error(e.getMessage()).build());
+                continue;
+            }
+            if (stored.isPresent()) {
+                results.set(i, OrderGroupResult.builder().order(stored.get()).build());
+            } else {
+                pending.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return results;
+        }
+
+        List<OrderGroupResult> created = orderService.createOrderGroup(
+                pending.stream().map(i -> group.get(i).item).toList());
+        for (int j = 0; j < pending.size(); j++) {
+            Ticket ticket = group.get(pending.get(j)).ticket;
+            OrderGroupResult result = created.get(j);
+            if (result.isSuccess() && ticket.idempotencyKey != null) {
+                idempotencyService.store(ticket.scope, ticket.idempotencyKey, ticket.fingerprint, result.getOrder());
+            }
+            results.set(pending.get(j), result);
+        }
+        return results;
+    }
+
+    // Resuelto el ticket, la clave sale del mapa local: si se completó, los reintentos la encuentran registrada;
+    // si se rechazó, queda libre (los intentos fallidos no se guardan)
+    private void resolve(Ticket ticket, OrderGroupResult result) {
+        if (result.isSuccess()) {
+            ticket.complete(result.getOrder());
+        } else {
+            ticket.reject(result.getError());
+        }
+        if (ticket.dedupKey() != null) {
+            ticketsByIdempotencyKey.asMap().remove(ticket.dedupKey(), ticket.trackingId);
+        }
+    }
+
+    private record QueuedOrder(Ticket ticket, OrderGroupItem item) {
+    }
+
+    private static final class Ticket {
+
+        private final String trackingId;
+        private final String scope;
+        private final String idempotencyKey;
+        private final String fingerprint; // huella del cuerpo; null sin clave
+        private final CompletableFuture<OrderTicketResponse> result = new CompletableFuture<>();
+
+        private Ticket(String trackingId, String scope, String idempotencyKey, String fingerprint) {
+            this.trackingId = trackingId;
+            this.scope = scope;
+            this.idempotencyKey = idempotencyKey;
+            this.fingerprint = fingerprint;
+        }
+
+        private String dedupKey() {
+            return idempotencyKey != null ? scope + ":" + idempotencyKey : null;
+        }
+
+        private void complete(OrderResponse order) {
+            result.complete(OrderTicketResponse.builder()
+                    .trackingId(trackingId)
+                    .status(EStatusIntake.COMPLETADO.name())
+                    .order(order)
+                    .build());
+        }
+
+        private void reject(String message) {
+            result.complete(OrderTicketResponse.builder()
+                    .trackingId(trackingId)
+                    .status(EStatusIntake.RECHAZADO.name())
+                    .message(message)
+                    .build());
+        }
+
+        private OrderTicketResponse pending() {
+            return OrderTicketResponse.builder()
+                    .trackingId(trackingId)
+                    .status(EStatusIntake.EN_COLA.name())
+                    .build();
+        }
+
+        private OrderTicketResponse snapshot() {
+            return result.getNow(pending());
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package dev.francode.ordersystem.service.impl;
 
+import dev.francode.ordersystem.dto.common.CursorPage;
+import dev.francode.ordersystem.dto.common.ResourceVersion;
 import dev.francode.ordersystem.dto.order.*;
+import dev.francode.ordersystem.dto.report.OrderSalesSnapshot;
 import dev.francode.ordersystem.entity.Order;
 import dev.francode.ordersystem.entity.OrderDetails;
 import dev.francode.ordersystem.entity.Product;
 import dev.francode.ordersystem.entity.UserApp;
+import dev.francode.ordersystem.entity.enums.ECountMode;
 import dev.francode.ordersystem.entity.enums.EStatusOrder;
 import dev.francode.ordersystem.exceptions.custom.ValidationException;
 import dev.francode.ordersystem.mapper.OrderMapper;
@@ -12,7 +16,14 @@ import dev.francode.ordersystem.repository.OrderDetailsRepository;
 import dev.francode.ordersystem.repository.OrderRepository;
 import dev.francode.ordersystem.repository.ProductRepository;
 import dev.francode.ordersystem.repository.UserRepository;
+import dev.francode.ordersystem.service.interfaces.AdminFeedService;
+import dev.francode.ordersystem.service.interfaces.InventoryService;
 import dev.francode.ordersystem.service.interfaces.OrderService;
+import dev.francode.ordersystem.service.interfaces.OrderTrackingService;
+import dev.francode.ordersystem.service.interfaces.PageCountService;
+import dev.francode.ordersystem.service.interfaces.SalesReportService;
+import dev.francode.ordersystem.service.interfaces.TrendingService;
+import dev.francode.ordersystem.service.spec.KeysetCursor;
 import dev.francode.ordersystem.service.spec.OrderSpecifications;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +31,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
@@ -35,7 +48,13 @@ public class OrderServiceImpl implements OrderService {
     private final OrderDetailsRepository orderProductRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final InventoryService inventoryService;
     private final OrderMapper orderMapper;
+    private final PageCountService pageCountService;
+    private final SalesReportService salesReportService;
+    private final TrendingService trendingService;
+    private final AdminFeedService adminFeedService;
+    private final OrderTrackingService orderTrackingService;
 
     private static final Logger log = LoggerFactory.getLogger(OrderServiceImpl.class);
 
@@ -60,6 +79,36 @@ public class OrderServiceImpl implements OrderService {
         return createOrderInternal(orderRequest, user);
     }
 
+    @Override
+    @Transactional
+    public List<OrderGroupResult> createOrderGroup(List<OrderGroupItem> items) {
+        Set<Long> userIds = new HashSet<>();
+        for (OrderGroupItem item : items) {
+            userIds.add(item.getUserId());
+        }
+        Map<Long, UserApp> users = new HashMap<>();
+        for (UserApp user : userRepository.findAllById(userIds)) {
+            users.put(user.getId(), user);
+        }
+
+        // Las validaciones de createOrderInternal fallan antes de escribir nada,
+        // así que un pedido rechazado no deja cambios pendientes en la transacción
+        List<OrderGroupResult> results = new ArrayList<>();
+        for (OrderGroupItem item : items) {
+            UserApp user = users.get(item.getUserId());
+            if (user == null) {
+                results.add(OrderGroupResult.builder().error("Usuario no encontrado").build());
+                continue;
+            }
+            try {
+                results.add(OrderGroupResult.builder().order(createOrderInternal(item.getRequest(), user)).build());
+            } catch (ValidationException e) {
+                results.add(OrderGroupResult.builder().error(e.getMessage()).build());
+            }
+        }
+        return results;
+    }
+
     private OrderResponse createOrderInternal(OrderRequest orderRequest, UserApp user) {
         List<OrderDetailsRequest> items = orderRequest.getProducts();
 
@@ -69,6 +118,20 @@ public class OrderServiceImpl implements OrderService {
 
         validateNoDuplicateProducts(items);
 
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderDetailsRequest prodReq : items) {
+            if (prodReq.getQuantity() == null || prodReq.getQuantity() <= 0) {
+                throw new ValidationException("Cantidad inválida para producto ID " + prodReq.getProductId());
+            }
+            quantities.put(prodReq.getProductId(), prodReq.getQuantity());
+        }
+
+        // Una sola consulta para todos los productos del pedido
+        Map<Long, Product> products = loadProducts(quantities.keySet());
+
+        // Restar stock: todas las líneas o ninguna
+        reserveStock(quantities, products);
+
         Order order = new Order();
         order.setUser(user);
         order.setDate(LocalDateTime.now());
@@ -78,20 +141,7 @@ public class OrderServiceImpl implements OrderService {
         BigDecimal totalAmount = BigDecimal.ZERO;
 
         for (OrderDetailsRequest prodReq : items) {
-            if (prodReq.getQuantity() == null || prodReq.getQuantity() <= 0) {
-                throw new ValidationException("Cantidad inválida para producto ID " + prodReq.getProductId());
-            }
-
-            Product product = productRepository.findById(prodReq.getProductId())
-                    .orElseThrow(() -> new ValidationException("Producto con ID " + prodReq.getProductId() + " no encontrado"));
-
-            if (prodReq.getQuantity() > product.getStock()) {
-                throw new ValidationException("Stock insuficiente para " + product.getName());
-            }
-
-            // Restar stock
-            product.setStock(product.getStock() - prodReq.getQuantity());
-            productRepository.save(product);
+            Product product = products.get(prodReq.getProductId());
 
             // Usar precio con descuento si está presente, sino el precio normal
             BigDecimal effectivePrice = (product.getPriceDiscount() != null) ? product.getPriceDiscount() : product.getPrice();
@@ -102,6 +152,7 @@ public class OrderServiceImpl implements OrderService {
             OrderDetails op = new OrderDetails();
             op.setOrder(order);
             op.setProduct(product);
+            op.setCategoryId(product.getCategory().getId());
             op.setQuantity(prodReq.getQuantity());
             op.setPrice(effectivePrice);
             op.setSubTotal(subtotal);
@@ -113,6 +164,11 @@ public class OrderServiceImpl implements OrderService {
 
         Order savedOrder = orderRepository.save(order);
         orderProductRepository.saveAll(orderProducts);
+        invalidateCounts(savedOrder);
+        OrderSalesSnapshot sales = salesReportService.snapshot(savedOrder);
+        salesReportService.recordChange(null, sales);
+        trendingService.recordSale(savedOrder.getDate(), sales.lines());
+        adminFeedService.orderCreated(savedOrder);
 
         return orderMapper.toOrderResponse(savedOrder);
     }
@@ -131,6 +187,8 @@ public class OrderServiceImpl implements OrderService {
             throw new ValidationException("Solo puede editar pedidos en estado PENDIENTE");
         }
 
+        OrderSalesSnapshot before = salesReportService.snapshot(order);
+
         List<OrderDetailsRequest> items = orderRequest.getProducts();
         if (items == null || items.isEmpty()) {
             throw new ValidationException("El pedido debe contener al menos un producto");
@@ -138,95 +196,189 @@ public class OrderServiceImpl implements OrderService {
 
         validateNoDuplicateProducts(items);
 
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderDetailsRequest prodReq : items) {
+            if (prodReq.getQuantity() == null || prodReq.getQuantity() <= 0) {
+                throw new ValidationException("Cantidad inválida para producto ID " + prodReq.getProductId());
+            }
+            quantities.put(prodReq.getProductId(), prodReq.getQuantity());
+        }
+
+        Map<Long, OrderDetails> currentLines = new HashMap<>();
+        Map<Long, Product> products = new HashMap<>();
         for (OrderDetails op : order.getOrderDetails()) {
-            Product p = op.getProduct();
-            p.setStock(p.getStock() + op.getQuantity());
-            productRepository.save(p);
+            currentLines.put(op.getProduct().getId(), op);
+            products.put(op.getProduct().getId(), op.getProduct());
         }
 
-        orderProductRepository.deleteAll(order.getOrderDetails());
+        // Solo se consultan los productos que no estaban ya en el pedido
+        List<Long> newProductIds = quantities.keySet().stream()
+                .filter(productId -> !currentLines.containsKey(productId))
+                .toList();
+        if (!newProductIds.isEmpty()) {
+            products.putAll(loadProducts(newProductIds));
+        }
 
-        List<OrderDetails> updatedProducts = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        // Solo se aplica al stock la diferencia neta entre las líneas actuales y las nuevas
+        Map<Long, Integer> stockDeltas = new HashMap<>();
+        currentLines.forEach((productId, op) -> stockDeltas.merge(productId, -op.getQuantity(), Integer::sum));
+        quantities.forEach((productId, quantity) -> stockDeltas.merge(productId, quantity, Integer::sum));
+
+        Map<Long, Integer> toReserve = new LinkedHashMap<>();
+        Map<Long, Integer> toRelease = new LinkedHashMap<>();
+        stockDeltas.forEach((productId, delta) -> {
+            if (delta > 0) {
+                toReserve.put(productId, delta);
+            } else if (delta < 0) {
+                toRelease.put(productId, -delta);
+            }
+        });
 
-        for (OrderDetailsRequest prodReq : items) {
-            Product product = productRepository.findById(prodReq.getProductId())
-                    .orElseThrow(() -> new ValidationException("Producto con ID " + prodReq.getProductId() + " no encontrado"));
+        reserveStock(toReserve, products);
+        releaseStock(toRelease);
 
-            if (prodReq.getQuantity() > product.getStock()) {
-                throw new ValidationException("Stock insuficiente para " + product.getName());
-            }
+        // Diferencia entre líneas: las existentes se actualizan (dirty checking, solo si cambian),
+        // las nuevas se insertan y las retiradas se borran en un único DELETE
+        List<OrderDetails> lines = new ArrayList<>();
+        List<OrderDetails> addedLines = new ArrayList<>();
+        BigDecimal totalAmount = BigDecimal.ZERO;
 
-            product.setStock(product.getStock() - prodReq.getQuantity());
-            productRepository.save(product);
+        for (Map.Entry<Long, Integer> item : quantities.entrySet()) {
+            Product product = products.get(item.getKey());
 
             BigDecimal effectivePrice = (product.getPriceDiscount() != null) ? product.getPriceDiscount() : product.getPrice();
-            BigDecimal subtotal = effectivePrice.multiply(BigDecimal.valueOf(prodReq.getQuantity()));
+            BigDecimal subtotal = effectivePrice.multiply(BigDecimal.valueOf(item.getValue()));
             totalAmount = totalAmount.add(subtotal);
 
-            OrderDetails op = new OrderDetails();
-            op.setOrder(order);
-            op.setProduct(product);
-            op.setQuantity(prodReq.getQuantity());
+            OrderDetails op = currentLines.remove(item.getKey());
+            if (op == null) {
+                op = new OrderDetails();
+                op.setOrder(order);
+                op.setProduct(product);
+                op.setCategoryId(product.getCategory().getId());
+                addedLines.add(op);
+            }
+            op.setQuantity(item.getValue());
             op.setPrice(effectivePrice);
             op.setSubTotal(subtotal);
-            updatedProducts.add(op);
+            lines.add(op);
+        }
+
+        if (!currentLines.isEmpty()) {
+            orderProductRepository.deleteAllInBatch(currentLines.values());
+        }
+        if (!addedLines.isEmpty()) {
+            orderProductRepository.saveAll(addedLines);
         }
 
-        order.setOrderDetails(updatedProducts);
+        order.setOrderDetails(lines);
         order.setTotal(totalAmount);
 
         Order savedOrder = orderRepository.save(order);
-        orderProductRepository.saveAll(updatedProducts);
+        invalidateCounts(savedOrder);
+        OrderSalesSnapshot after = salesReportService.snapshot(savedOrder);
+        salesReportService.recordChange(before, after);
+        // La edición cuenta como anular las líneas anteriores y vender las nuevas
+        trendingService.recordCancellation(order.getDate(), before.lines());
+        trendingService.recordSale(savedOrder.getDate(), after.lines());
 
         return orderMapper.toOrderResponse(savedOrder);
     }
 
     @Override
-    public OrderResponse getOrderById(Long orderId, Long userId) {
+    public OrderResponse getOrderById(Long orderId, Long userId, boolean admin) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ValidationException("Pedido no encontrado"));
 
-        UserApp user = userRepository.findById(userId)
-                .orElseThrow(() -> new ValidationException("Usuario no encontrado"));
-
-        if (!user.isAdmin() && !order.getUser().getId().equals(userId)) {
+        if (!admin && !order.getUser().getId().equals(userId)) {
             throw new ValidationException("No puede acceder a pedidos de otros usuarios");
         }
 
         return orderMapper.toOrderResponse(order);
     }
 
+    @Override
+    public ResourceVersion getOrderVersion(Long orderId, Long userId, boolean admin) {
+        OrderVersionView version = orderRepository.findVersionView(orderId)
+                .orElseThrow(() -> new ValidationException("Pedido no encontrado"));
+
+        if (!admin && !version.userId().equals(userId)) {
+            throw new ValidationException("No puede acceder a pedidos de otros usuarios");
+        }
+
+        return toResourceVersion(orderId, version);
+    }
+
     @Override
     public Page<OrderResponse> getOrdersByUser(Long userId, OrderFilter filter, Pageable pageable) {
         if (!filter.isDateRangeValid()) {
             throw new ValidationException("Rango de fechas inválido");
         }
         Specification<Order> spec = OrderSpecifications.forUserFilter(userId, filter);
-        return orderRepository.findAll(spec, pageable)
-                .map(orderMapper::toOrderResponse);
+        return findOrderPage(spec, pageable, PageCountService.customerOrders(userId), filter.countKey(), ECountMode.EXACT);
     }
 
     @Override
-    public Page<OrderResponse> getOrders(OrderAdminFilter filter, Pageable pageable) {
+    public Slice<OrderResponse> getOrders(OrderAdminFilter filter, Pageable pageable, String count) {
         if (!filter.isDateRangeValid()) {
             throw new ValidationException("Rango de fechas inválido");
         }
+        ECountMode countMode = pageCountService.parseMode(count);
         Specification<Order> spec = OrderSpecifications.forAdminFilter(filter);
-        return orderRepository.findAll(spec, pageable)
-                .map(orderMapper::toOrderResponse);
+        if (countMode == ECountMode.NONE) {
+            return findOrderSlice(spec, pageable);
+        }
+        return findOrderPage(spec, pageable, PageCountService.ORDERS, filter.countKey(), countMode);
+    }
+
+    @Override
+    public CursorPage<OrderResponse> getOrdersByCursor(OrderAdminFilter filter, String cursor, int size, String direction) {
+        if (!filter.isDateRangeValid()) {
+            throw new ValidationException("Rango de fechas inválido");
+        }
+        int limit = KeysetCursor.checkSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Sort.Direction sortDirection = after != null
+                ? after.direction()
+                : KeysetCursor.direction(direction, Sort.Direction.DESC);
+
+        Specification<Order> spec = OrderSpecifications.forAdminFilter(filter);
+        if (after != null) {
+            spec = spec.and(after.after("date", after.value(LocalDateTime::parse)));
+        }
+
+        // Se pide una fila de más para saber si hay página siguiente
+        List<Long> ids = orderRepository.findIds(spec, KeysetCursor.sort(sortDirection, "date"), limit + 1);
+        boolean hasNext = ids.size() > limit;
+        if (hasNext) {
+            ids = ids.subList(0, limit);
+        }
+
+        Map<Long, Order> orders = loadOrders(ids);
+        List<OrderResponse> content = ids.stream()
+                .map(orderId -> orderMapper.toOrderResponse(orders.get(orderId)))
+                .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            OrderResponse last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.of(sortDirection, last.getDate(), last.getId()).encode();
+        }
+        return CursorPage.<OrderResponse>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
     @Transactional
-    public void cancelOrder(Long orderId, Long userId) {
+    public void cancelOrder(Long orderId, Long userId, boolean admin) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ValidationException("Pedido no encontrado"));
 
-        UserApp user = userRepository.findById(userId)
-                .orElseThrow(() -> new ValidationException("Usuario no encontrado"));
-
-        if (!order.getUser().getId().equals(userId) && !user.isAdmin()) {
+        if (!order.getUser().getId().equals(userId) && !admin) {
             throw new ValidationException("No puede cancelar pedidos de otros usuarios");
         }
 
@@ -234,18 +386,24 @@ public class OrderServiceImpl implements OrderService {
             throw new ValidationException("El pedido ya está cancelado");
         }
 
-        if (!user.isAdmin() && order.getStatus() != EStatusOrder.PENDIENTE) {
+        if (!admin && order.getStatus() != EStatusOrder.PENDIENTE) {
             throw new ValidationException("Solo puede cancelar pedidos en estado PENDIENTE");
         }
 
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
         for (OrderDetails op : order.getOrderDetails()) {
-            Product p = op.getProduct();
-            p.setStock(p.getStock() + op.getQuantity());
-            productRepository.save(p);
+            quantities.merge(op.getProduct().getId(), op.getQuantity(), Integer::sum);
         }
+        releaseStock(quantities);
 
+        OrderSalesSnapshot before = salesReportService.snapshot(order);
         order.setStatus(EStatusOrder.CANCELADO);
         orderRepository.save(order);
+        invalidateCounts(order);
+        salesReportService.recordChange(before, salesReportService.snapshot(order));
+        trendingService.recordCancellation(order.getDate(), before.lines());
+        adminFeedService.orderStatusChanged(order);
+        orderTrackingService.statusChanged(order);
     }
 
     @Override
@@ -262,8 +420,13 @@ public class OrderServiceImpl implements OrderService {
             throw new ValidationException("El pedido ya está confirmado");
         }
 
+        OrderSalesSnapshot before = salesReportService.snapshot(order);
         order.setStatus(EStatusOrder.CONFIRMADO);
         orderRepository.save(order);
+        invalidateCounts(order);
+        salesReportService.recordChange(before, salesReportService.snapshot(order));
+        adminFeedService.orderStatusChanged(order);
+        orderTrackingService.statusChanged(order);
     }
 
     @Override
@@ -280,8 +443,13 @@ public class OrderServiceImpl implements OrderService {
             throw new ValidationException("El pedido ya está enviado");
         }
 
+        OrderSalesSnapshot before = salesReportService.snapshot(order);
         order.setStatus(EStatusOrder.ENVIADO);
         orderRepository.save(order);
+        invalidateCounts(order);
+        salesReportService.recordChange(before, salesReportService.snapshot(order));
+        adminFeedService.orderStatusChanged(order);
+        orderTrackingService.statusChanged(order);
     }
 
     @Override
@@ -298,8 +466,40 @@ public class OrderServiceImpl implements OrderService {
             throw new ValidationException("El pedido ya está entregado");
         }
 
+        OrderSalesSnapshot before = salesReportService.snapshot(order);
         order.setStatus(EStatusOrder.ENTREGADO);
         orderRepository.save(order);
+        invalidateCounts(order);
+        salesReportService.recordChange(before, salesReportService.snapshot(order));
+        adminFeedService.orderStatusChanged(order);
+        orderTrackingService.statusChanged(order);
+    }
+
+    private void reserveStock(Map<Long, Integer> quantities, Map<Long, Product> products) {
+        List<Long> shortProducts = inventoryService.reserve(quantities);
+        if (!shortProducts.isEmpty()) {
+            throw new ValidationException("Stock insuficiente para " + products.get(shortProducts.get(0)).getName());
+        }
+        adminFeedService.stockChanged(quantities.keySet());
+    }
+
+    private void releaseStock(Map<Long, Integer> quantities) {
+        inventoryService.release(quantities);
+        adminFeedService.stockChanged(quantities.keySet());
+    }
+
+    private Map<Long, Product> loadProducts(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllWithCategoryByIdIn(productIds)) {
+            products.put(product.getId(), product);
+        }
+
+        for (Long productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new ValidationException("Producto con ID " + productId + " no encontrado");
+            }
+        }
+        return products;
     }
 
     private void validateNoDuplicateProducts(List<OrderDetailsRequest> items) {
@@ -325,6 +525,22 @@ public class OrderServiceImpl implements OrderService {
         return orderMapper.toOrderResponse(order);
     }
 
+    @Override
+    public ResourceVersion getOrderVersionPublic(Long orderId) {
+        OrderVersionView version = orderRepository.findVersionView(orderId)
+                .orElseThrow(() -> new ValidationException("Pedido no encontrado"));
+
+        if (!version.userId().equals(1L)) {
+            throw new ValidationException("No tiene acceso a este pedido");
+        }
+
+        return toResourceVersion(orderId, version);
+    }
+
+    private static ResourceVersion toResourceVersion(Long orderId, OrderVersionView version) {
+        return ResourceVersion.of("pedido", orderId, true,
+                version.updatedAt(), version.linesUpdatedAt(), version.productsUpdatedAt(), version.lines());
+    }
 
     @Override
     public Page<OrderResponse> getDefaultUserOrders(OrderFilter filter, Pageable pageable) {
@@ -336,8 +552,40 @@ public class OrderServiceImpl implements OrderService {
 
         Specification<Order> spec = OrderSpecifications.forUserFilter(defaultUserId, filter);
 
-        return orderRepository.findAll(spec, pageable)
-                .map(orderMapper::toOrderResponse);
+        return findOrderPage(spec, pageable, PageCountService.customerOrders(defaultUserId), filter.countKey(),
+                ECountMode.EXACT);
+    }
+
+    // Listado en dos fases: primero los IDs de la página, luego los pedidos completos con joins,
+    // devueltos en el mismo orden que los IDs. El total sale de PageCountService.
+    private Page<OrderResponse> findOrderPage(Specification<Order> spec, Pageable pageable,
+                                              String countScope, String countKey, ECountMode countMode) {
+        Page<Long> ids = orderRepository.findIds(spec, pageable, () -> pageCountService.count(
+                countScope, countKey, countMode, () -> orderRepository.count(spec)));
+        Map<Long, Order> orders = loadOrders(ids.getContent());
+        return ids.map(orderId -> orderMapper.toOrderResponse(orders.get(orderId)));
+    }
+
+    // Un cambio en un pedido afecta a los totales del back-office y a los del cliente dueño, no a los de otros
+    private void invalidateCounts(Order order) {
+        pageCountService.invalidate(PageCountService.ORDERS, PageCountService.customerOrders(order.getUser().getId()));
+    }
+
+    // Igual que findOrderPage pero sin total
+    private Slice<OrderResponse> findOrderSlice(Specification<Order> spec, Pageable pageable) {
+        Slice<Long> ids = orderRepository.findIdSlice(spec, pageable);
+        Map<Long, Order> orders = loadOrders(ids.getContent());
+        return ids.map(orderId -> orderMapper.toOrderResponse(orders.get(orderId)));
+    }
+
+    private Map<Long, Order> loadOrders(List<Long> orderIds) {
+        Map<Long, Order> orders = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            for (Order order : orderRepository.findAllWithDetailsByIdIn(orderIds)) {
+                orders.put(order.getId(), order);
+            }
+        }
+        return orders;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,402 @@
+package dev.francode.ordersystem.service.impl;
+
+import dev.francode.ordersystem.dto.order.OrderStatusEvent;
+import dev.francode.ordersystem.dto.order.OrderStatusView;
+import dev.francode.ordersystem.entity.Order;
+import dev.francode.ordersystem.entity.enums.EStatusOrder;
+import dev.francode.ordersystem.exceptions.custom.ServiceBusyException;
+import dev.francode.ordersystem.exceptions.custom.ValidationException;
+import dev.francode.ordersystem.repository.OrderRepository;
+import dev.francode.ordersystem.service.interfaces.OrderTrackingService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Seguimiento de pedidos por SSE en lugar de sondear el detalle. Las conexiones abiertas son peticiones
+// asíncronas del servlet: no retienen hilos, solo una entrada en estos mapas. Cada flujo tiene su propia cola
+// de envíos, vaciada por una sola tarea a la vez en un pool propio: los eventos de un cliente salen en orden
+// y un cliente lento nunca frena la transacción que cambió el estado. Si una cola se llena, el flujo se cierra
+// y el cliente, al reconectar, recibe el estado actual. Un envío que pasa de write-timeout-ms se da por
+// perdido: el flujo se cierra y el pool recibe un hilo de reemplazo mientras el envío atascado no vuelve.
+// Los flujos son de esta instancia: solo ven los cambios confirmados en ella.
+@Service
+public class OrderTrackingServiceImpl implements OrderTrackingService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderTrackingServiceImpl.class);
+
+    private static final String STATUS_EVENT = "status";
+    // Envíos pendientes por flujo; más allá el cliente no está leyendo
+    private static final int MAX_QUEUED_SENDS = 16;
+    // Hilos de reemplazo como máximo para envíos atascados
+    private static final int MAX_REPLACEMENT_THREADS = 32;
+
+    private final OrderRepository orderRepository;
+    private final long timeoutMs;
+    private final int maxConnections;
+    private final int sendThreads;
+    private final long writeTimeoutNanos;
+    private final ThreadPoolExecutor sender;
+    private int stalledSends; // protegido por resizeSender
+
+    private final ConcurrentHashMap<Long, Set<Subscription>> byOrder = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Subscription>> byUser = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    // Flujos con un envío en curso; el vigilante solo recorre estos
+    private final Set<Subscription> sending = ConcurrentHashMap.newKeySet();
+
+    public OrderTrackingServiceImpl(OrderRepository orderRepository,
+                                    @Value("${francode.app.tracking.timeout-ms}") long timeoutMs,
+                                    @Value("${francode.app.tracking.max-connections}") int maxConnections,
+                                    @Value("${francode.app.tracking.send-threads}") int sendThreads,
+                                    @Value("${francode.app.tracking.send-queue-capacity}") int sendQueueCapacity,
+                                    @Value("${francode.app.tracking.write-timeout-ms}") long writeTimeoutMs) {
+        this.orderRepository = orderRepository;
+        this.timeoutMs = timeoutMs;
+        this.maxConnections = maxConnections;
+        this.sendThreads = sendThreads;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        this.sender = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(sendQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-tracking-sender");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+    }
+
+    @Override
+    public SseEmitter trackOrder(Long orderId, Long userId, boolean admin) {
+        // Primero se registra y después se lee el estado: un cambio confirmado entre ambos pasos llega como
+        // evento (retenido hasta enviar el estado inicial) o ya está en la lectura; nunca se pierde
+        Subscription subscription = open(orderId, userId);
+        OrderStatusView order;
+        try {
+            order = orderRepository.findStatusView(orderId)
+                    .orElseThrow(() -> new ValidationException("Pedido no encontrado"));
+            if (!admin && !order.userId().equals(userId)) {
+                throw new ValidationException("No puede acceder a pedidos de otros usuarios");
+            }
+        } catch (RuntimeException e) {
+            close(subscription);
+            throw e;
+        }
+
+        // El estado inicial y lo retenido pasan por la cola del flujo como cualquier otro evento
+        OrderStatusEvent initial = new OrderStatusEvent(orderId, order.status(), LocalDateTime.now());
+        synchronized (subscription) {
+            enqueue(subscription, () -> send(subscription, initial), true);
+            for (OrderStatusEvent event : subscription.held) {
+                enqueue(subscription, () -> send(subscription, event), true);
+            }
+            subscription.held.clear();
+            subscription.started = true;
+        }
+        return subscription.emitter;
+    }
+
+    @Override
+    public SseEmitter trackUserOrders(Long userId) {
+        Subscription subscription = open(null, userId);
+        enqueue(subscription, () -> subscription.emitter.send(SseEmitter.event().comment("conectado")), false);
+        return subscription.emitter;
+    }
+
+    @Override
+    public void statusChanged(Order order) {
+        // Se copia dentro de la transacción; al confirmar la entidad ya no se toca
+        OrderStatusEvent event = new OrderStatusEvent(order.getId(), order.getStatus(), LocalDateTime.now());
+        Long userId = order.getUser().getId();
+        afterCommit(() -> {
+            dispatch(byOrder.get(event.orderId()), event);
+            // Del índice por usuario solo los flujos multiplexados; los del pedido ya se han servido arriba
+            Set<Subscription> userSubscriptions = byUser.get(userId);
+            if (userSubscriptions != null) {
+                dispatch(userSubscriptions.stream().filter(subscription -> subscription.orderId == null).toList(), event);
+            }
+        });
+    }
+
+    // Comentario periódico: mantiene abiertos los proxies intermedios y descubre las conexiones caídas.
+    // Un flujo con envíos pendientes ya tiene tráfico y no lo necesita
+    @Scheduled(fixedDelayString = "${francode.app.tracking.heartbeat-interval-ms}")
+    public void heartbeat() {
+        for (Set<Subscription> subscriptions : byUser.values()) {
+            for (Subscription subscription : subscriptions) {
+                if (subscription.queued.get() == 0 && !subscription.draining.get()) {
+                    enqueue(subscription, () -> subscription.emitter.send(SseEmitter.event().comment("ping")), false);
+                }
+            }
+        }
+    }
+
+    // Un envío bloqueado no se puede cancelar desde fuera (el emisor lo retiene hasta que el contenedor agota
+    // su propio plazo de escritura): se cierra el flujo, se interrumpe el hilo y se compensa mientras siga
+    // ocupado para no frenar al resto. El emisor lo completa la propia tarea del flujo cuando el envío vuelve
+    @Scheduled(fixedDelayString = "${francode.app.tracking.write-timeout-ms}")
+    public void expireStalledSends() {
+        long now = System.nanoTime();
+        for (Subscription subscription : sending) {
+            if (subscription.stalledSince(now, writeTimeoutNanos) && subscription.stalled.compareAndSet(false, true)) {
+                log.warn("Envío SSE atascado más de {} ms; se cierra el seguimiento del usuario {}",
+                        TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos), subscription.userId);
+                close(subscription);
+                resizeSender(1);
+                subscription.interruptSend();
+            }
+        }
+    }
+
+    private Subscription open(Long orderId, Long userId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new ServiceBusyException("Demasiados seguimientos abiertos. Intente nuevamente en unos segundos.");
+        }
+
+        Subscription subscription = new Subscription(new SseEmitter(timeoutMs), orderId, userId);
+        subscription.emitter.onCompletion(() -> close(subscription));
+        subscription.emitter.onError(error -> close(subscription));
+        // Sin completar, el timeout acabaría en un error del servlet; el cliente de EventSource vuelve a conectar solo
+        subscription.emitter.onTimeout(subscription.emitter::complete);
+
+        if (orderId != null) {
+            byOrder.computeIfAbsent(orderId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
+        // Los flujos de un pedido también cuelgan del usuario que los abrió para que el latido los recorra todos una vez
+        byUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        return subscription;
+    }
+
+    private void close(Subscription subscription) {
+        if (!subscription.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscription.outbox.clear();
+        connections.decrementAndGet();
+        if (subscription.orderId != null) {
+            remove(byOrder, subscription.orderId, subscription);
+        }
+        remove(byUser, subscription.userId, subscription);
+    }
+
+    private static void remove(ConcurrentHashMap<Long, Set<Subscription>> index, Long key, Subscription subscription) {
+        index.computeIfPresent(key, (id, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    private void dispatch(Collection<Subscription> subscriptions, OrderStatusEvent event) {
+        if (subscriptions == null) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            synchronized (subscription) {
+                if (!subscription.started) {
+                    subscription.held.add(event);
+                    continue;
+                }
+            }
+            enqueue(subscription, () -> send(subscription, event), true);
+        }
+    }
+
+    private void send(Subscription subscription, OrderStatusEvent event) throws IOException {
+        subscription.emitter.send(SseEmitter.event()
+                .name(STATUS_EVENT)
+                .id(event.orderId() + ":" + event.status())
+                .data(event));
+        if (subscription.orderId != null && isFinal(event.status())) {
+            subscription.emitter.complete();
+        }
+    }
+
+    // El emisor solo lo toca la tarea que vacía la cola del flujo (o quien tiene draining): sus métodos son
+    // sincronizados y llamarlos desde fuera bloquearía detrás de un envío atascado, p. ej. al confirmar un pedido
+    private void enqueue(Subscription subscription, Send task, boolean required) {
+        if (subscription.closed.get()) {
+            return;
+        }
+        if (subscription.queued.incrementAndGet() > MAX_QUEUED_SENDS) {
+            subscription.queued.decrementAndGet();
+            // Un latido perdido no importa; un cambio de estado perdido se resuelve cerrando el flujo
+            if (required) {
+                log.warn("Cola SSE del usuario {} llena; se cierra su seguimiento", subscription.userId);
+                close(subscription);
+                schedule(subscription);
+            }
+            return;
+        }
+        subscription.outbox.add(task);
+        schedule(subscription);
+    }
+
+    // Como mucho una tarea por flujo en el pool: es lo que mantiene el orden de sus eventos
+    private void schedule(Subscription subscription) {
+        if (!subscription.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> drain(subscription));
+        } catch (RejectedExecutionException e) {
+            // Pool saturado: se cierra el flujo y el cliente, al reconectar, recibe el estado actual.
+            // Con draining tomado ningún envío usa el emisor, así que completarlo aquí no bloquea
+            log.warn("Cola de envíos SSE llena; se cierra el seguimiento del usuario {}", subscription.userId);
+            close(subscription);
+            finish(subscription);
+            subscription.draining.set(false);
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        Send task;
+        while (!subscription.closed.get() && (task = subscription.outbox.poll()) != null) {
+            subscription.queued.decrementAndGet();
+            sending.add(subscription);
+            subscription.startSend();
+            try {
+                task.run();
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado, flujo ya cerrado o envío interrumpido por el vigilante
+                subscription.emitter.completeWithError(e);
+            } finally {
+                subscription.endSend();
+                sending.remove(subscription);
+                Thread.interrupted();
+                if (subscription.stalled.compareAndSet(true, false)) {
+                    resizeSender(-1);
+                }
+            }
+        }
+        if (subscription.closed.get()) {
+            finish(subscription);
+        }
+        subscription.draining.set(false);
+        // Un envío encolado justo después del último poll no debe quedarse sin tarea
+        if (!subscription.closed.get() && !subscription.outbox.isEmpty()) {
+            schedule(subscription);
+        }
+    }
+
+    // Cerrado desde fuera (cola llena o envío atascado): se completa el emisor para soltar la conexión
+    private static void finish(Subscription subscription) {
+        try {
+            subscription.emitter.complete();
+        } catch (RuntimeException e) {
+            // Ya completado o con error
+        }
+    }
+
+    private synchronized void resizeSender(int delta) {
+        stalledSends += delta;
+        int size = sendThreads + Math.min(stalledSends, MAX_REPLACEMENT_THREADS);
+        if (size > sender.getMaximumPoolSize()) {
+            sender.setMaximumPoolSize(size);
+            sender.setCorePoolSize(size);
+        } else {
+            sender.setCorePoolSize(size);
+            sender.setMaximumPoolSize(size);
+        }
+    }
+
+    private static boolean isFinal(EStatusOrder status) {
+        return status == EStatusOrder.ENTREGADO || status == EStatusOrder.CANCELADO;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Send {
+        void run() throws IOException;
+    }
+
+    private static final class Subscription {
+
+        private final SseEmitter emitter;
+        private final Long orderId; // null en el flujo por usuario
+        private final Long userId;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        // Flujo de pedido: hasta enviar el estado inicial, los eventos se retienen para conservar el orden
+        private boolean started;
+        private final List<OrderStatusEvent> held = new ArrayList<>();
+
+        // Envíos pendientes; solo los vacía la tarea que tiene draining
+        private final Queue<Send> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean stalled = new AtomicBoolean();
+
+        // Envío en curso: hilo e instante de inicio, para que el vigilante no interrumpa otro envío posterior
+        private final Object sendLock = new Object();
+        private Thread sendingThread;
+        private long sendingSince;
+
+        Subscription(SseEmitter emitter, Long orderId, Long userId) {
+            this.emitter = emitter;
+            this.orderId = orderId;
+            this.userId = userId;
+            this.started = orderId == null;
+        }
+
+        private void startSend() {
+            synchronized (sendLock) {
+                sendingThread = Thread.currentThread();
+                sendingSince = System.nanoTime();
+            }
+        }
+
+        private void endSend() {
+            synchronized (sendLock) {
+                sendingThread = null;
+            }
+        }
+
+        private boolean stalledSince(long now, long timeoutNanos) {
+            synchronized (sendLock) {
+                return sendingThread != null && now - sendingSince > timeoutNanos;
+            }
+        }
+
+        private void interruptSend() {
+            synchronized (sendLock) {
+                if (sendingThread != null) {
+                    sendingThread.interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package dev.francode.ordersystem.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.francode.ordersystem.entity.enums.ECountMode;
+import dev.francode.ordersystem.exceptions.custom.ValidationException;
+import dev.francode.ordersystem.service.interfaces.PageCountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+@Service
+public class PageCountServiceImpl implements PageCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(PageCountServiceImpl.class);
+
+    private static final String ESTIMATE_SQL =
+            "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Totales exactos por "scope#generación|filtro normalizado", con TTL corto
+    private final Cache<String, Long> exactCounts;
+
+    // Generación vigente de cada ámbito. Invalidar es pasar a una nueva, O(1): las entradas de la anterior
+    // quedan inalcanzables y caducan solas. Si una generación se desaloja, la siguiente es otra nueva
+    private final Cache<String, Long> generations;
+    private final AtomicLong nextGeneration = new AtomicLong();
+
+    // Estimaciones de InnoDB por tabla; ya son aproximadas, no se invalidan con las escrituras
+    private final Cache<String, Long> estimates;
+
+    public PageCountServiceImpl(JdbcTemplate jdbcTemplate,
+                                @Value("${francode.app.pagination.count-ttl-ms}") long countTtlMs,
+                                @Value("${francode.app.pagination.count-max-entries}") long maxEntries,
+                                @Value("${francode.app.pagination.estimate-ttl-ms}") long estimateTtlMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exactCounts = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(countTtlMs))
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .build();
+        this.estimates = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(estimateTtlMs))
+                .build();
+    }
+
+    @Override
+    public ECountMode parseMode(String mode) {
+        if (!StringUtils.hasText(mode)) {
+            return ECountMode.EXACT;
+        }
+        try {
+            return ECountMode.valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Modo de conteo inválido: " + mode + " (exact, estimate o none)");
+        }
+    }
+
+    @Override
+    public long count(String scope, String filterKey, ECountMode mode, LongSupplier exactCount) {
+        if (mode == ECountMode.ESTIMATE && filterKey.isEmpty()) {
+            Long estimate = estimates.get(scope, this::estimate);
+            if (estimate != null) {
+                return estimate;
+            }
+        }
+        long generation = generations.get(scope, key -> nextGeneration.incrementAndGet());
+        return exactCounts.get(scope + "#" + generation + "|" + filterKey, key -> exactCount.getAsLong());
+    }
+
+    @Override
+    public void invalidate(String... scopes) {
+        List<String> invalidated = List.of(scopes);
+        Runnable evict = () -> invalidated.forEach(scope -> generations.put(scope, nextGeneration.incrementAndGet()));
+        evict.run();
+        // Se repite tras el commit para descartar un total recalculado con datos aún sin confirmar
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private Long estimate(String table) {
+        try {
+            return jdbcTemplate.queryForObject(ESTIMATE_SQL, Long.class, table);
+        } catch (RuntimeException e) {
+            // Sin estadísticas disponibles: se recurre al conteo exacto
+            log.debug("No se pudo estimar el total de {}: {}", table, e.getMessage());
+            return null;
+        }
+    }
+}
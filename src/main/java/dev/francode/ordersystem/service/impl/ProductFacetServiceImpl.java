@@ -0,0 +1,347 @@
+package dev.francode.ordersystem.service.impl;
+
+import dev.francode.ordersystem.dto.product.ProductFacetsResponse;
+import dev.francode.ordersystem.dto.product.ProductFacetsResponse.BrandCount;
+import dev.francode.ordersystem.dto.product.ProductFacetsResponse.CategoryCount;
+import dev.francode.ordersystem.dto.product.ProductFacetsResponse.PriceRangeCount;
+import dev.francode.ordersystem.dto.product.ProductFilter;
+import dev.francode.ordersystem.dto.product.ProductSearchDocument;
+import dev.francode.ordersystem.entity.Product;
+import dev.francode.ordersystem.repository.ProductRepository;
+import dev.francode.ordersystem.service.interfaces.ProductFacetService;
+import dev.francode.ordersystem.service.interfaces.ProductSearchService;
+import dev.francode.ordersystem.service.spec.ProductSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Instantánea columnar del catálogo para las facetas: un array primitivo por columna (precio en céntimos,
+// categoría y marca codificadas con diccionario, rango de precio precalculado) y un BitSet de filas vivas.
+// El diccionario de categorías guarda también su nombre: la respuesta no consulta la BD.
+// Los recuentos de todas las facetas salen de un único recorrido, sin GROUP BY por faceta ni por petición.
+// Se actualiza con las escrituras de esta instancia y se reconstruye periódicamente (y compacta las filas borradas).
+@Service
+public class ProductFacetServiceImpl implements ProductFacetService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetServiceImpl.class);
+
+    private static final int MAX_BRANDS = 50;
+
+    private final ProductRepository productRepository;
+    private final ProductSearchService productSearchService;
+    private final long[] priceBounds;
+
+    private volatile Snapshot current;
+
+    // Serializa las reconstrucciones (programada y la perezosa de la primera petición)
+    private final Object rebuildLock = new Object();
+
+    // Cambios confirmados durante una reconstrucción; se aplican sobre la instantánea nueva antes de publicarla
+    private List<Consumer<Snapshot>> pendingChanges;
+
+    public ProductFacetServiceImpl(ProductRepository productRepository,
+                                   ProductSearchService productSearchService,
+                                   @Value("${francode.app.facets.price-bounds}") List<BigDecimal> priceBounds) {
+        this.productRepository = productRepository;
+        this.productSearchService = productSearchService;
+        this.priceBounds = priceBounds.stream().sorted().mapToLong(bound -> toCents(bound, RoundingMode.CEILING)).toArray();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${francode.app.facets.rebuild-interval-ms}",
+            fixedDelayString = "${francode.app.facets.rebuild-interval-ms}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pendingChanges = new ArrayList<>();
+            }
+            Snapshot snapshot = new Snapshot();
+            List<ProductSearchDocument> documents = productRepository.findSearchDocuments();
+            documents.forEach(snapshot::put);
+            synchronized (this) {
+                pendingChanges.forEach(change -> change.accept(snapshot));
+                pendingChanges = null;
+                current = snapshot;
+            }
+            log.debug("Instantánea de facetas reconstruida con {} productos", documents.size());
+        }
+    }
+
+    @Override
+    public ProductFacetsResponse getFacets(ProductFilter filter) {
+        if (current == null) {
+            synchronized (rebuildLock) {
+                if (current == null) {
+                    rebuild();
+                }
+            }
+        }
+        Snapshot snapshot = current;
+        Counts counts = snapshot.count(searchIds(filter), filter.getCategory(),
+                filter.getMinprice() == null ? Long.MIN_VALUE : toCents(filter.getMinprice(), RoundingMode.CEILING),
+                filter.getMaxprice() == null ? Long.MAX_VALUE : toCents(filter.getMaxprice(), RoundingMode.FLOOR));
+        return toResponse(counts);
+    }
+
+    @Override
+    public void index(Product product) {
+        ProductSearchDocument document = new ProductSearchDocument(product.getId(), product.getName(),
+                product.getBrandName(), product.getDescription(), product.getCategory().getId(),
+                product.getCategory().getName(), product.getPrice());
+        afterCommit(snapshot -> snapshot.put(document));
+    }
+
+    @Override
+    public void remove(Long productId) {
+        afterCommit(snapshot -> snapshot.remove(productId));
+    }
+
+    @Override
+    public void renameCategory(Long categoryId, String name) {
+        afterCommit(snapshot -> snapshot.renameCategory(categoryId, name));
+    }
+
+    // Productos que contienen el término, sin aplicar categoría ni precio (cada faceta decide cuáles aplica).
+    // null si no hay término; si el índice de búsqueda no puede responder se resuelve con una consulta de IDs.
+    private Collection<Long> searchIds(ProductFilter filter) {
+        if (filter.getSearch() == null || filter.getSearch().trim().isEmpty()) {
+            return null;
+        }
+        ProductFilter searchOnly = new ProductFilter(filter.getSearch(), null, null, null);
+        return productSearchService.search(searchOnly)
+                .map(ids -> (Collection<Long>) ids)
+                .orElseGet(() -> productRepository.findIds(ProductSpecifications.filterBy(searchOnly)));
+    }
+
+    private ProductFacetsResponse toResponse(Counts counts) {
+        List<CategoryCount> categories = new ArrayList<>();
+        for (int code = 0; code < counts.categories().length; code++) {
+            if (counts.categories()[code] > 0) {
+                categories.add(new CategoryCount(counts.categoryIds()[code], counts.categoryNames()[code],
+                        counts.categories()[code]));
+            }
+        }
+        categories.sort(Comparator.comparingLong(CategoryCount::count).reversed()
+                .thenComparing(CategoryCount::categoryId));
+
+        List<BrandCount> brands = new ArrayList<>();
+        for (int code = 0; code < counts.brands().length; code++) {
+            if (counts.brands()[code] > 0) {
+                brands.add(new BrandCount(counts.brandNames()[code], counts.brands()[code]));
+            }
+        }
+        brands.sort(Comparator.comparingLong(BrandCount::count).reversed().thenComparing(BrandCount::brandName));
+
+        List<PriceRangeCount> priceRanges = new ArrayList<>();
+        for (int bucket = 0; bucket < counts.priceRanges().length; bucket++) {
+            BigDecimal from = fromCents(bucket == 0 ? 0 : priceBounds[bucket - 1]);
+            BigDecimal to = bucket < priceBounds.length ? fromCents(priceBounds[bucket]) : null;
+            priceRanges.add(new PriceRangeCount(from, to, counts.priceRanges()[bucket]));
+        }
+
+        return new ProductFacetsResponse(counts.total(), categories,
+                brands.size() > MAX_BRANDS ? brands.subList(0, MAX_BRANDS) : brands, priceRanges);
+    }
+
+    private void afterCommit(Consumer<Snapshot> change) {
+        Runnable apply = () -> {
+            synchronized (this) {
+                if (current != null) {
+                    change.accept(current);
+                }
+                if (pendingChanges != null) {
+                    pendingChanges.add(change);
+                }
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply.run();
+            }
+        });
+    }
+
+    private static long toCents(BigDecimal price, RoundingMode rounding) {
+        return price.movePointRight(2).setScale(0, rounding).longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private record Counts(long total, Long[] categoryIds, String[] categoryNames, long[] categories,
+                          String[] brandNames, long[] brands, long[] priceRanges) {
+    }
+
+    private final class Snapshot {
+
+        private static final int NO_BRAND = -1;
+
+        // Columnas: la fila i describe un producto en todas ellas
+        private long[] prices = new long[1024];
+        private int[] categories = new int[1024];
+        private int[] brands = new int[1024];
+        private byte[] priceRanges = new byte[1024];
+        private int size;
+
+        private final BitSet live = new BitSet();
+        private final Map<Long, Integer> rows = new HashMap<>();
+
+        // Diccionarios: valor <-> código denso usado en las columnas (el nombre de la categoría va con su código)
+        private final List<Long> categoryIds = new ArrayList<>();
+        private final List<String> categoryNames = new ArrayList<>();
+        private final Map<Long, Integer> categoryCodes = new HashMap<>();
+        private final List<String> brandNames = new ArrayList<>();
+        private final Map<String, Integer> brandCodes = new HashMap<>();
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void put(ProductSearchDocument document) {
+            long price = toCents(document.price(), RoundingMode.HALF_UP);
+            lock.writeLock().lock();
+            try {
+                // Un cambio reescribe su fila; solo las altas añaden filas
+                Integer row = rows.get(document.id());
+                if (row == null) {
+                    row = append(document.id());
+                }
+                prices[row] = price;
+                categories[row] = categoryCode(document.categoryId(), document.categoryName());
+                brands[row] = brandCode(document.brandName());
+                priceRanges[row] = (byte) priceRange(price);
+                live.set(row);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void renameCategory(Long categoryId, String name) {
+            lock.writeLock().lock();
+            try {
+                Integer code = categoryCodes.get(categoryId);
+                if (code != null) {
+                    categoryNames.set(code, name);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long productId) {
+            lock.writeLock().lock();
+            try {
+                Integer row = rows.remove(productId);
+                if (row != null) {
+                    live.clear(row);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Un recorrido por las filas vivas (o solo las que contienen el término); cada faceta cuenta la fila
+        // si cumple todos los criterios menos el suyo, y el total si los cumple todos
+        Counts count(Collection<Long> searchIds, Long categoryId, long minPrice, long maxPrice) {
+            lock.readLock().lock();
+            try {
+                BitSet candidates = live;
+                if (searchIds != null) {
+                    candidates = new BitSet(size);
+                    for (Long id : searchIds) {
+                        Integer row = rows.get(id);
+                        if (row != null) {
+                            candidates.set(row);
+                        }
+                    }
+                }
+                // Una categoría que no está en el catálogo no deja pasar ninguna fila (-2 no es un código válido)
+                int categoryCode = categoryId == null ? -1 : categoryCodes.getOrDefault(categoryId, -2);
+
+                long total = 0;
+                long[] categoryCounts = new long[categoryIds.size()];
+                long[] brandCounts = new long[brandNames.size()];
+                long[] priceRangeCounts = new long[priceBounds.length + 1];
+
+                for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+                    boolean inCategory = categoryCode == -1 || categories[row] == categoryCode;
+                    boolean inPrice = prices[row] >= minPrice && prices[row] <= maxPrice;
+                    if (inPrice) {
+                        categoryCounts[categories[row]]++;
+                    }
+                    if (inCategory) {
+                        priceRangeCounts[priceRanges[row]]++;
+                    }
+                    if (inCategory && inPrice) {
+                        total++;
+                        if (brands[row] != NO_BRAND) {
+                            brandCounts[brands[row]]++;
+                        }
+                    }
+                }
+                return new Counts(total, categoryIds.toArray(Long[]::new), categoryNames.toArray(String[]::new),
+                        categoryCounts, brandNames.toArray(String[]::new), brandCounts, priceRangeCounts);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private int append(Long productId) {
+            if (size == prices.length) {
+                int capacity = size * 2;
+                prices = Arrays.copyOf(prices, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                brands = Arrays.copyOf(brands, capacity);
+                priceRanges = Arrays.copyOf(priceRanges, capacity);
+            }
+            rows.put(productId, size);
+            return size++;
+        }
+
+        // Cada producto trae el nombre actual de su categoría; el último leído es el que se muestra
+        private int categoryCode(Long categoryId, String categoryName) {
+            Integer code = categoryCodes.get(categoryId);
+            if (code == null) {
+                categoryIds.add(categoryId);
+                categoryNames.add(categoryName);
+                code = categoryIds.size() - 1;
+                categoryCodes.put(categoryId, code);
+            } else {
+                categoryNames.set(code, categoryName);
+            }
+            return code;
+        }
+
+        private int brandCode(String brandName) {
+            if (brandName == null || brandName.trim().isEmpty()) {
+                return NO_BRAND;
+            }
+            return brandCodes.computeIfAbsent(brandName.trim(), name -> {
+                brandNames.add(name);
+                return brandNames.size() - 1;
+            });
+        }
+
+        // Índice del primer límite mayor que el precio: [0, b0), [b0, b1), ..., [bn, ∞)
+        private int priceRange(long price) {
+            int position = Arrays.binarySearch(priceBounds, price);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package dev.francode.ordersystem.service.impl;
+
+import dev.francode.ordersystem.dto.product.ProductFilter;
+import dev.francode.ordersystem.dto.product.ProductSearchDocument;
+import dev.francode.ordersystem.entity.Product;
+import dev.francode.ordersystem.repository.ProductRepository;
+import dev.francode.ordersystem.service.interfaces.ProductSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+// Índice invertido de trigramas sobre nombre, marca y descripción.
+// Los trigramas solo preseleccionan candidatos; cada candidato se confirma con una búsqueda de subcadena,
+// así que el resultado es el mismo que el LIKE '%término%' (sin mayúsculas ni acentos, como la colación de MySQL).
+// Se actualiza con las escrituras de esta instancia y se reconstruye periódicamente para recoger las de otras.
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchServiceImpl.class);
+
+    private static final int GRAM = 3;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+
+    private volatile Index current;
+
+    // Cambios confirmados durante una reconstrucción; se aplican sobre el índice nuevo antes de publicarlo
+    private List<Consumer<Index>> pendingChanges;
+
+    public ProductSearchServiceImpl(ProductRepository productRepository,
+                                    @Value("${francode.app.search.index-enabled}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${francode.app.search.rebuild-interval-ms}",
+            fixedDelayString = "${francode.app.search.rebuild-interval-ms}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        Index index = new Index();
+        List<ProductSearchDocument> documents = productRepository.findSearchDocuments();
+        documents.forEach(index::put);
+        synchronized (this) {
+            pendingChanges.forEach(change -> change.accept(index));
+            pendingChanges = null;
+            current = index;
+        }
+        log.debug("Índice de búsqueda de productos reconstruido con {} productos", documents.size());
+    }
+
+    @Override
+    public Optional<List<Long>> search(ProductFilter filter) {
+        Index index = current;
+        String term = filter.getSearch() == null ? "" : normalize(filter.getSearch().trim());
+        if (index == null || term.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(index.search(term, filter));
+    }
+
+    @Override
+    public void index(Product product) {
+        ProductSearchDocument document = new ProductSearchDocument(product.getId(), product.getName(),
+                product.getBrandName(), product.getDescription(), product.getCategory().getId(),
+                product.getCategory().getName(), product.getPrice());
+        afterCommit(index -> index.put(document));
+    }
+
+    @Override
+    public void remove(Long productId) {
+        afterCommit(index -> index.remove(productId));
+    }
+
+    private void afterCommit(Consumer<Index> change) {
+        if (!enabled) {
+            return;
+        }
+        Runnable apply = () -> {
+            synchronized (this) {
+                if (current != null) {
+                    change.accept(current);
+                }
+                if (pendingChanges != null) {
+                    pendingChanges.add(change);
+                }
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply.run();
+            }
+        });
+    }
+
+    // Minúsculas y sin acentos: "Café" y "cafe" se encuentran igual que con utf8mb4_0900_ai_ci
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(long id, String name, String brand, String description, Long categoryId, BigDecimal price) {
+    }
+
+    private static final class Index {
+
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void put(ProductSearchDocument document) {
+            Entry entry = new Entry(document.id(), normalize(document.name()), normalize(document.brandName()),
+                    normalize(document.description()), document.categoryId(), document.price());
+            lock.writeLock().lock();
+            try {
+                removeLocked(document.id());
+                entries.put(entry.id(), entry);
+                for (String gram : grams(entry)) {
+                    postings.computeIfAbsent(gram, key -> new HashSet<>()).add(entry.id());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long productId) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<Long> search(String term, ProductFilter filter) {
+            lock.readLock().lock();
+            try {
+                List<long[]> scored = new ArrayList<>();
+                for (Long id : candidates(term)) {
+                    Entry entry = entries.get(id);
+                    if (entry == null || !matchesFilter(entry, filter)) {
+                        continue;
+                    }
+                    int score = score(entry, term);
+                    if (score > 0) {
+                        scored.add(new long[]{score, id});
+                    }
+                }
+                // Más relevancia primero; a igualdad, por ID para que la paginación sea estable
+                scored.sort((a, b) -> a[0] != b[0] ? Long.compare(b[0], a[0]) : Long.compare(a[1], b[1]));
+                return scored.stream().map(row -> row[1]).toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Intersección de las listas de cada trigrama del término, empezando por la más corta
+        private Collection<Long> candidates(String term) {
+            if (term.length() < GRAM) {
+                return entries.keySet();
+            }
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(term)) {
+                Set<Long> list = postings.get(gram);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<Long> result = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.retainAll(lists.get(i));
+            }
+            return result;
+        }
+
+        private void removeLocked(Long productId) {
+            Entry previous = entries.remove(productId);
+            if (previous == null) {
+                return;
+            }
+            for (String gram : grams(previous)) {
+                Set<Long> list = postings.get(gram);
+                if (list != null) {
+                    list.remove(productId);
+                    if (list.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+
+        private static boolean matchesFilter(Entry entry, ProductFilter filter) {
+            if (filter.getCategory() != null && !filter.getCategory().equals(entry.categoryId())) {
+                return false;
+            }
+            if (filter.getMinprice() != null && entry.price().compareTo(filter.getMinprice()) < 0) {
+                return false;
+            }
+            return filter.getMaxprice() == null || entry.price().compareTo(filter.getMaxprice()) <= 0;
+        }
+
+        // Nombre por delante de marca y descripción; empezar por el término puntúa más que contenerlo
+        private static int score(Entry entry, String term) {
+            int score = 0;
+            if (entry.name().startsWith(term)) {
+                score += 8;
+            } else if (entry.name().contains(term)) {
+                score += 4;
+            }
+            if (entry.brand().contains(term)) {
+                score += 2;
+            }
+            if (entry.description().contains(term)) {
+                score += 1;
+            }
+            return score;
+        }
+
+        // Por campo, para no crear trigramas que crucen de un campo a otro
+        private static Set<String> grams(Entry entry) {
+            Set<String> grams = new HashSet<>();
+            grams.addAll(grams(entry.name()));
+            grams.addAll(grams(entry.brand()));
+            grams.addAll(grams(entry.description()));
+            return grams;
+        }
+
+        private static Set<String> grams(String text) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                grams.add(text.substring(i, i + GRAM));
+            }
+            return grams;
+        }
+    }
+}
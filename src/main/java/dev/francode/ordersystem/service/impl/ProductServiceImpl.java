@@ -1,30 +1,63 @@
 package dev.francode.ordersystem.service.impl;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import dev.francode.ordersystem.dto.common.CachedPage;
+import dev.francode.ordersystem.dto.common.CursorPage;
+import dev.francode.ordersystem.dto.common.ResourceVersion;
 import dev.francode.ordersystem.dto.product.ProductFilter;
 import dev.francode.ordersystem.dto.product.ProductRequest;
 import dev.francode.ordersystem.dto.product.ProductResponse;
+import dev.francode.ordersystem.dto.product.ProductVersionView;
+import dev.francode.ordersystem.dto.product.ProductView;
 import dev.francode.ordersystem.entity.Category;
 import dev.francode.ordersystem.entity.Product;
+import dev.francode.ordersystem.entity.enums.ECountMode;
 import dev.francode.ordersystem.exceptions.custom.ValidationException;
 import dev.francode.ordersystem.mapper.ProductMapper;
 import dev.francode.ordersystem.repository.CategoryRepository;
 import dev.francode.ordersystem.repository.ProductRepository;
+import dev.francode.ordersystem.service.interfaces.CatalogCacheService;
+import dev.francode.ordersystem.service.interfaces.InventoryService;
+import dev.francode.ordersystem.service.interfaces.PageCountService;
+import dev.francode.ordersystem.service.interfaces.ProductFacetService;
+import dev.francode.ordersystem.service.interfaces.ProductSearchService;
 import dev.francode.ordersystem.service.interfaces.ProductService;
+import dev.francode.ordersystem.service.spec.KeysetCursor;
 import dev.francode.ordersystem.service.spec.ProductSpecifications;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.*;
+
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final InventoryService inventoryService;
     private final ProductMapper productMapper;
+    private final PageCountService pageCountService;
+    private final CatalogCacheService catalogCacheService;
+    private final ProductSearchService productSearchService;
+    private final ProductFacetService productFacetService;
+
+    // Por encima de este número de resultados, un IN con los IDs del índice deja de compensar frente al LIKE
+    private static final int MAX_SEARCH_IDS = 1000;
+
+    private static final TypeReference<ProductResponse> PRODUCT_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<CachedPage<ProductResponse>> PRODUCT_PAGE_TYPE = new TypeReference<>() {
+    };
 
     @Override
     @Transactional
@@ -35,7 +68,14 @@ public class ProductServiceImpl implements ProductService {
         Product product = productMapper.toEntity(request);
         product.setCategory(category);
 
-        return productMapper.toResponse(productRepository.save(product));
+        Product savedProduct = productRepository.save(product);
+        inventoryService.resetStock(savedProduct.getId(), savedProduct.getStock());
+        pageCountService.invalidate(PageCountService.PRODUCTS);
+        // Los índices se actualizan antes de vaciar la caché para que ninguna página se recalcule con los índices viejos
+        productSearchService.index(savedProduct);
+        productFacetService.index(savedProduct);
+        catalogCacheService.invalidateProductListings(List.of(savedProduct.getId()));
+        return productMapper.toResponse(savedProduct);
     }
 
     @Override
@@ -55,7 +95,13 @@ public class ProductServiceImpl implements ProductService {
         product.setBrandName(request.getBrandName());
         product.setCategory(category);
 
-        return productMapper.toResponse(productRepository.save(product));
+        Product savedProduct = productRepository.save(product);
+        inventoryService.resetStock(savedProduct.getId(), savedProduct.getStock());
+        pageCountService.invalidate(PageCountService.PRODUCTS);
+        productSearchService.index(savedProduct);
+        productFacetService.index(savedProduct);
+        catalogCacheService.invalidateProductListings(List.of(savedProduct.getId()));
+        return productMapper.toResponse(savedProduct);
     }
 
     @Override
@@ -64,19 +110,166 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ValidationException("Producto no encontrado"));
         productRepository.delete(product);
+        inventoryService.removeProduct(productId);
+        pageCountService.invalidate(PageCountService.PRODUCTS);
+        productSearchService.remove(productId);
+        productFacetService.remove(productId);
+        catalogCacheService.invalidateProductListings(List.of(productId));
     }
 
     @Override
     public ProductResponse getProductById(Long productId) {
-        Product product = productRepository.findById(productId)
+        ProductResponse response = catalogCacheService.get(CatalogCacheService.PRODUCT_PREFIX + productId, PRODUCT_TYPE,
+                () -> {
+                    ProductView view = productRepository.findViewById(productId)
+                            .orElseThrow(() -> new ValidationException("Producto no encontrado"));
+                    return toResponses(List.of(view)).get(0);
+                },
+                cached -> List.of(cached.getId()));
+        applyCurrentStock(List.of(response));
+        return response;
+    }
+
+    @Override
+    public ResourceVersion getProductVersion(Long productId) {
+        ProductVersionView version = productRepository.findVersionView(productId)
                 .orElseThrow(() -> new ValidationException("Producto no encontrado"));
-        return productMapper.toResponse(product);
+        Integer stock = inventoryService.getStockOverrides(List.of(productId)).getOrDefault(productId, version.stock());
+
+        // Sin Last-Modified: el stock cambia sin actualizar ninguna fecha y If-Modified-Since daría 304 con stock viejo
+        return ResourceVersion.of("producto", productId, false,
+                version.updatedAt(), version.categoryUpdatedAt(), version.imagesUpdatedAt(), version.images(), stock);
+    }
+
+    @Override
+    public Slice<ProductResponse> getProducts(ProductFilter filter, Pageable pageable, String count) {
+        ECountMode countMode = pageCountService.parseMode(count);
+        String key = CatalogCacheService.PRODUCT_PAGE_PREFIX + filter.countKey() + "|" + pageable + "|" + countMode;
+
+        CachedPage<ProductResponse> page = catalogCacheService.get(key, PRODUCT_PAGE_TYPE,
+                () -> loadProductPage(filter, pageable, countMode),
+                cached -> cached.content().stream().map(ProductResponse::getId).toList());
+
+        Slice<ProductResponse> products = page.counted()
+                ? new PageImpl<>(page.content(), pageable, page.total())
+                : new SliceImpl<>(page.content(), pageable, page.hasNext());
+        applyCurrentStock(products.getContent());
+        return products;
+    }
+
+    private CachedPage<ProductResponse> loadProductPage(ProductFilter filter, Pageable pageable, ECountMode countMode) {
+        Optional<List<Long>> searchIds = productSearchService.search(filter);
+        if (searchIds.isPresent() && pageable.getSort().isUnsorted()) {
+            return loadRankedPage(filter, searchIds.get(), pageable, countMode);
+        }
+
+        Specification<Product> spec = filterSpec(filter, searchIds);
+        if (countMode == ECountMode.NONE) {
+            Slice<ProductView> views = productRepository.findViewSlice(spec, pageable);
+            return new CachedPage<>(toResponses(views.getContent()), -1, views.hasNext(), false);
+        }
+        Page<ProductView> views = productRepository.findViews(spec, pageable, () -> pageCountService.count(
+                PageCountService.PRODUCTS, filter.countKey(), countMode, () -> productRepository.count(spec)));
+        return new CachedPage<>(toResponses(views.getContent()), views.getTotalElements(), views.hasNext(), true);
+    }
+
+    // Búsqueda sin orden explícito: ranking del índice y una sola consulta para los productos de la página
+    private CachedPage<ProductResponse> loadRankedPage(ProductFilter filter, List<Long> ranked, Pageable pageable,
+                                                       ECountMode countMode) {
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), ranked.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), ranked.size()) : ranked.size();
+        List<Long> pageIds = ranked.subList(from, to);
+
+        Map<Long, ProductView> views = new HashMap<>();
+        if (!pageIds.isEmpty()) {
+            productRepository.findViews(ProductSpecifications.filterBy(filter, pageIds), Sort.by("id"), pageIds.size())
+                    .forEach(view -> views.put(view.id(), view));
+        }
+        List<ProductView> ordered = pageIds.stream().map(views::get).filter(Objects::nonNull).toList();
+
+        boolean counted = countMode != ECountMode.NONE;
+        return new CachedPage<>(toResponses(ordered), counted ? ranked.size() : -1, to < ranked.size(), counted);
+    }
+
+    private static Specification<Product> filterSpec(ProductFilter filter, Optional<List<Long>> searchIds) {
+        return ProductSpecifications.filterBy(filter, searchIds.filter(ids -> ids.size() <= MAX_SEARCH_IDS).orElse(null));
     }
 
     @Override
-    public Page<ProductResponse> getProducts(ProductFilter filter, Pageable pageable) {
-        Specification<Product> spec = ProductSpecifications.filterBy(filter);
-        return productRepository.findAll(spec, pageable)
-                .map(productMapper::toResponse);
+    public CursorPage<ProductResponse> getProductsByCursor(ProductFilter filter, String cursor, int size, String direction) {
+        int limit = KeysetCursor.checkSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Sort.Direction sortDirection = after != null
+                ? after.direction()
+                : KeysetCursor.direction(direction, Sort.Direction.ASC);
+
+        Specification<Product> spec = filterSpec(filter, productSearchService.search(filter));
+        if (after != null) {
+            spec = spec.and(after.after("price", after.value(BigDecimal::new)));
+        }
+
+        // Se pide una fila de más para saber si hay página siguiente
+        List<ProductView> views = productRepository.findViews(spec, KeysetCursor.sort(sortDirection, "price"), limit + 1);
+        boolean hasNext = views.size() > limit;
+        if (hasNext) {
+            views = views.subList(0, limit);
+        }
+
+        List<ProductResponse> content = toResponses(views);
+        applyStockOverrides(content);
+
+        String nextCursor = null;
+        if (hasNext) {
+            ProductView last = views.get(views.size() - 1);
+            nextCursor = KeysetCursor.of(sortDirection, last.price(), last.id()).encode();
+        }
+        return CursorPage.<ProductResponse>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // Proyecciones + una consulta por lote para las imágenes: sin entidades en el contexto de persistencia
+    private List<ProductResponse> toResponses(List<ProductView> views) {
+        Map<Long, List<String>> images = productRepository.findImageUrls(
+                views.stream().map(ProductView::id).toList());
+        // Sin imágenes, [] como con la entidad cargada (su colección nunca es null)
+        return views.stream()
+                .map(view -> productMapper.toResponse(view, images.getOrDefault(view.id(), List.of())))
+                .toList();
+    }
+
+    // Lo cacheado no fija el stock: se sustituye por el actual con una lectura por lote (columna y fragmentos,
+    // y encima las reservas del ledger). Así ninguna instancia muestra stock anterior a una compra hecha en otra
+    private void applyCurrentStock(List<ProductResponse> responses) {
+        if (responses.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = responses.stream().map(ProductResponse::getId).toList();
+        Map<Long, Integer> stock = new HashMap<>(productRepository.findStock(productIds));
+        stock.putAll(inventoryService.getStockOverrides(productIds));
+        for (ProductResponse response : responses) {
+            Integer current = stock.get(response.getId());
+            if (current != null) {
+                response.setStock(current);
+            }
+        }
+    }
+
+    // El stock vivo puede ir por delante de la columna (reservas aún sin volcar)
+    private void applyStockOverrides(List<ProductResponse> responses) {
+        if (responses.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> overrides = inventoryService.getStockOverrides(
+                responses.stream().map(ProductResponse::getId).toList());
+        for (ProductResponse response : responses) {
+            Integer stock = overrides.get(response.getId());
+            if (stock != null) {
+                response.setStock(stock);
+            }
+        }
     }
 }
\ No newline at end of file
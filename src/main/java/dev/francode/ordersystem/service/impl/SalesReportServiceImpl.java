@@ -0,0 +1,233 @@
+package dev.francode.ordersystem.service.impl;
+
+import dev.francode.ordersystem.dto.report.*;
+import dev.francode.ordersystem.entity.Order;
+import dev.francode.ordersystem.entity.OrderDetails;
+import dev.francode.ordersystem.entity.SalesRollup;
+import dev.francode.ordersystem.entity.enums.ESalesDimension;
+import dev.francode.ordersystem.exceptions.custom.ValidationException;
+import dev.francode.ordersystem.repository.SalesRollupRepository;
+import dev.francode.ordersystem.service.interfaces.SalesReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Resúmenes de ventas mantenidos de forma incremental: cada cambio de un pedido suma su delta a las filas
+// del día, de cada producto y de cada categoría al confirmar la transacción, así que los informes leen
+// O(días) filas en lugar de agrupar Pedidos y Pedidos_Productos.
+@Service
+public class SalesReportServiceImpl implements SalesReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesReportServiceImpl.class);
+
+    private static final int MAX_PRODUCTS = 200;
+    private static final long MAX_REBUILD_DAYS = 3660;
+
+    // Orden fijo de las filas dentro del lote: dos transacciones que tocan las mismas filas las bloquean
+    // en el mismo orden y no se interbloquean
+    private static final Comparator<SalesRollup.RollupId> KEY_ORDER = Comparator
+            .comparing(SalesRollup.RollupId::getDate)
+            .thenComparing(SalesRollup.RollupId::getStatus)
+            .thenComparing(SalesRollup.RollupId::getDimension)
+            .thenComparing(SalesRollup.RollupId::getReferenceId);
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildThreads;
+    private final int rebuildChunkDays;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public SalesReportServiceImpl(SalesRollupRepository salesRollupRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${francode.app.reports.rebuild-threads}") int rebuildThreads,
+                                  @Value("${francode.app.reports.rebuild-chunk-days}") int rebuildChunkDays) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildThreads = rebuildThreads;
+        this.rebuildChunkDays = rebuildChunkDays;
+    }
+
+    @Override
+    public OrderSalesSnapshot snapshot(Order order) {
+        List<OrderSalesSnapshot.Line> lines = new ArrayList<>();
+        for (OrderDetails line : order.getOrderDetails()) {
+            Long categoryId = line.getCategoryId() != null
+                    ? line.getCategoryId()
+                    : line.getProduct().getCategory().getId();
+            lines.add(new OrderSalesSnapshot.Line(line.getProduct().getId(), categoryId,
+                    line.getQuantity(), line.getSubTotal()));
+        }
+        return new OrderSalesSnapshot(order.getDate().toLocalDate(), order.getStatus(), order.getTotal(), lines);
+    }
+
+    @Override
+    public void recordChange(OrderSalesSnapshot before, OrderSalesSnapshot after) {
+        Map<SalesRollup.RollupId, SalesRollup> deltas = pendingDeltas();
+        if (before != null) {
+            add(deltas, before, -1);
+        }
+        if (after != null) {
+            add(deltas, after, 1);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(deltas);
+        }
+    }
+
+    @Override
+    public List<DailySalesResponse> getDailySales(SalesReportFilter filter) {
+        validate(filter);
+        return salesRollupRepository.findDailySales(ESalesDimension.DIA, filter.getFrom(), filter.getTo(), filter.getStatus());
+    }
+
+    @Override
+    public List<ProductSalesResponse> getProductSales(SalesReportFilter filter, int limit) {
+        validate(filter);
+        if (limit <= 0 || limit > MAX_PRODUCTS) {
+            throw new ValidationException("El límite debe estar entre 1 y " + MAX_PRODUCTS);
+        }
+        return salesRollupRepository.findProductSales(ESalesDimension.PRODUCTO, filter.getFrom(), filter.getTo(),
+                filter.getStatus(), PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<CategorySalesResponse> getCategorySales(SalesReportFilter filter) {
+        validate(filter);
+        return salesRollupRepository.findCategorySales(ESalesDimension.CATEGORIA, filter.getFrom(), filter.getTo(),
+                filter.getStatus());
+    }
+
+    // Cada tramo borra y recalcula sus días en su propia transacción. Un pedido que se confirma mientras tanto
+    // espera a los bloqueos del INSERT ... SELECT y suma su delta sobre las filas ya recalculadas.
+    @Override
+    public SalesRebuildResponse rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new ValidationException("Rango de fechas inválido");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_REBUILD_DAYS) {
+            throw new ValidationException("El rango a recalcular no puede superar " + MAX_REBUILD_DAYS + " días");
+        }
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new ValidationException("Ya hay un recálculo de resúmenes de ventas en curso");
+        }
+
+        long start = System.nanoTime();
+        List<LocalDate> chunkStarts = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(rebuildChunkDays)) {
+            chunkStarts.add(day);
+        }
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads)) {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (LocalDate chunkStart : chunkStarts) {
+                LocalDate chunkEnd = min(chunkStart.plusDays(rebuildChunkDays), to.plusDays(1));
+                chunks.add(executor.submit(() -> transactionTemplate.executeWithoutResult(
+                        status -> salesRollupRepository.recompute(chunkStart, chunkEnd))));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            rebuilding.set(false);
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Resúmenes de ventas recalculados del {} al {} en {} tramos ({} ms)", from, to, chunkStarts.size(), elapsedMs);
+        return new SalesRebuildResponse(from, to, chunkStarts.size(), elapsedMs);
+    }
+
+    // Deltas de la transacción en curso; se escriben una sola vez, justo antes del commit
+    private Map<SalesRollup.RollupId, SalesRollup> pendingDeltas() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashMap<>();
+        }
+        @SuppressWarnings("unchecked")
+        Map<SalesRollup.RollupId, SalesRollup> deltas =
+                (Map<SalesRollup.RollupId, SalesRollup>) TransactionSynchronizationManager.getResource(this);
+        if (deltas != null) {
+            return deltas;
+        }
+        Map<SalesRollup.RollupId, SalesRollup> created = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                write(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(SalesReportServiceImpl.this);
+            }
+        });
+        return created;
+    }
+
+    private void write(Map<SalesRollup.RollupId, SalesRollup> deltas) {
+        List<SalesRollup> rows = deltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                .map(Map.Entry::getValue)
+                // Un cambio que no altera nada (p. ej. editar sin variar líneas) no toca la fila
+                .filter(delta -> delta.getOrders() != 0 || delta.getUnits() != 0 || delta.getRevenue().signum() != 0)
+                .toList();
+        salesRollupRepository.addDeltas(rows);
+        deltas.clear();
+    }
+
+    private static void add(Map<SalesRollup.RollupId, SalesRollup> deltas, OrderSalesSnapshot order, int sign) {
+        long units = 0;
+        Map<Long, long[]> categoryUnits = new HashMap<>();
+        Map<Long, BigDecimal> categoryRevenue = new HashMap<>();
+        for (OrderSalesSnapshot.Line line : order.lines()) {
+            units += line.quantity();
+            add(deltas, order, ESalesDimension.PRODUCTO, line.productId(), sign, line.quantity(), line.subTotal());
+            categoryUnits.computeIfAbsent(line.categoryId(), id -> new long[1])[0] += line.quantity();
+            categoryRevenue.merge(line.categoryId(), line.subTotal(), BigDecimal::add);
+        }
+        add(deltas, order, ESalesDimension.DIA, 0L, sign, units, order.total());
+        categoryUnits.forEach((categoryId, categoryTotal) -> add(deltas, order, ESalesDimension.CATEGORIA, categoryId,
+                sign, categoryTotal[0], categoryRevenue.get(categoryId)));
+    }
+
+    private static void add(Map<SalesRollup.RollupId, SalesRollup> deltas, OrderSalesSnapshot order,
+                            ESalesDimension dimension, Long referenceId, int sign, long units, BigDecimal revenue) {
+        SalesRollup.RollupId key = new SalesRollup.RollupId(order.date(), order.status(), dimension, referenceId);
+        SalesRollup delta = deltas.computeIfAbsent(key, id -> new SalesRollup(
+                id.getDate(), id.getStatus(), id.getDimension(), id.getReferenceId(), 0L, 0L, BigDecimal.ZERO));
+        delta.setOrders(delta.getOrders() + sign);
+        delta.setUnits(delta.getUnits() + sign * units);
+        delta.setRevenue(delta.getRevenue().add(sign < 0 ? revenue.negate() : revenue));
+    }
+
+    private static void validate(SalesReportFilter filter) {
+        if (!filter.isDateRangeValid()) {
+            throw new ValidationException("Rango de fechas inválido");
+        }
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,49 @@
+package dev.francode.ordersystem.service.impl;
+
+import dev.francode.ordersystem.service.interfaces.SecondLevelCacheService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class SecondLevelCacheServiceImpl implements SecondLevelCacheService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Map<String, Object> getStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("hits", statistics.getSecondLevelCacheHitCount());
+        result.put("misses", statistics.getSecondLevelCacheMissCount());
+        result.put("puts", statistics.getSecondLevelCachePutCount());
+        result.put("naturalIdHits", statistics.getNaturalIdCacheHitCount());
+        result.put("naturalIdMisses", statistics.getNaturalIdCacheMissCount());
+        result.put("statements", statistics.getPrepareStatementCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            Map<String, Object> regionStats = new LinkedHashMap<>();
+            regionStats.put("hits", region.getHitCount());
+            regionStats.put("misses", region.getMissCount());
+            regionStats.put("puts", region.getPutCount());
+            regionStats.put("entries", region.getElementCountInMemory());
+            regions.put(regionName, regionStats);
+        }
+        result.put("regions", regions);
+        return result;
+    }
+}
@@ -0,0 +1,388 @@
+package dev.francode.ordersystem.service.impl;
+
+import dev.francode.ordersystem.dto.product.ProductNameView;
+import dev.francode.ordersystem.dto.product.TrendingProductResponse;
+import dev.francode.ordersystem.dto.report.OrderSalesSnapshot;
+import dev.francode.ordersystem.entity.enums.ETrendingWindow;
+import dev.francode.ordersystem.exceptions.custom.ValidationException;
+import dev.francode.ordersystem.repository.ProductRepository;
+import dev.francode.ordersystem.service.interfaces.TrendingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.LongUnaryOperator;
+
+// Más vendidos por ventana deslizante (hora, día, semana), global y por categoría, sin consultar Pedidos_Productos.
+// Cada ventana es un anillo de tramos con un count-min por tramo más el de la ventana completa (suma de los vivos);
+// al caducar un tramo se resta de la suma. Por ámbito se guarda un montículo acotado de candidatos al top-K.
+// Los rankings se publican ya calculados cada pocos segundos y las lecturas solo consultan un mapa.
+// Cuenta las ventas de esta instancia; el estado se guarda en un fichero para sobrevivir a los reinicios.
+@Service
+public class TrendingServiceImpl implements TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingServiceImpl.class);
+
+    private static final long GLOBAL_SCOPE = 0L;
+    private static final int CANDIDATES_PER_RANK = 4;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final ProductRepository productRepository;
+    private final int maxRank;
+    private final int depth;
+    private final int width;
+    private final Path snapshotPath;
+    private final Map<ETrendingWindow, Window> windows = new EnumMap<>(ETrendingWindow.class);
+
+    // Rankings publicados por "ventana:ámbito"
+    private volatile Map<String, List<TrendingProductResponse>> rankings = Map.of();
+
+    public TrendingServiceImpl(ProductRepository productRepository,
+                               @Value("${francode.app.trending.max-rank}") int maxRank,
+                               @Value("${francode.app.trending.sketch-depth}") int depth,
+                               @Value("${francode.app.trending.sketch-width}") int width,
+                               @Value("${francode.app.trending.snapshot-path}") String snapshotPath) {
+        this.productRepository = productRepository;
+        this.maxRank = maxRank;
+        this.depth = depth;
+        this.width = width;
+        this.snapshotPath = Path.of(snapshotPath);
+        int capacity = maxRank * CANDIDATES_PER_RANK;
+        windows.put(ETrendingWindow.HOUR, new Window(Duration.ofMinutes(5), 12, depth, width, capacity));
+        windows.put(ETrendingWindow.DAY, new Window(Duration.ofHours(1), 24, depth, width, capacity));
+        windows.put(ETrendingWindow.WEEK, new Window(Duration.ofHours(6), 28, depth, width, capacity));
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_VERSION || in.readInt() != depth || in.readInt() != width) {
+                log.warn("Instantánea de tendencias incompatible con la configuración actual; se empieza de cero");
+                return;
+            }
+            for (Window window : windows.values()) {
+                synchronized (window) {
+                    window.readFrom(in);
+                }
+            }
+            refresh();
+            log.info("Tendencias restauradas desde {}", snapshotPath);
+        } catch (IOException e) {
+            log.warn("No se pudo leer la instantánea de tendencias {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @Override
+    public void recordSale(LocalDateTime orderDate, List<OrderSalesSnapshot.Line> lines) {
+        afterCommit(() -> apply(orderDate, lines, 1));
+    }
+
+    @Override
+    public void recordCancellation(LocalDateTime orderDate, List<OrderSalesSnapshot.Line> lines) {
+        afterCommit(() -> apply(orderDate, lines, -1));
+    }
+
+    @Override
+    public List<TrendingProductResponse> getTrending(String window, Long categoryId, int limit) {
+        if (limit <= 0 || limit > maxRank) {
+            throw new ValidationException("El límite debe estar entre 1 y " + maxRank);
+        }
+        ETrendingWindow trendingWindow = parseWindow(window);
+        List<TrendingProductResponse> ranking = rankings.getOrDefault(
+                key(trendingWindow, categoryId == null ? GLOBAL_SCOPE : categoryId), List.of());
+        return ranking.size() > limit ? ranking.subList(0, limit) : ranking;
+    }
+
+    // Caduca los tramos vencidos, reordena los candidatos con las estimaciones actuales y publica los rankings
+    @Scheduled(fixedDelayString = "${francode.app.trending.refresh-interval-ms}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        Map<String, List<long[]>> ranked = new HashMap<>();
+        Set<Long> productIds = new HashSet<>();
+        windows.forEach((trendingWindow, window) -> {
+            synchronized (window) {
+                window.rank(now, maxRank).forEach((scope, ranking) -> {
+                    ranked.put(key(trendingWindow, scope), ranking);
+                    ranking.forEach(entry -> productIds.add(entry[0]));
+                });
+            }
+        });
+
+        Map<Long, String> names = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (ProductNameView product : productRepository.findNamesByIdIn(productIds)) {
+                names.put(product.id(), product.name());
+            }
+        }
+
+        Map<String, List<TrendingProductResponse>> published = new HashMap<>();
+        ranked.forEach((key, ranking) -> published.put(key, ranking.stream()
+                .filter(entry -> names.containsKey(entry[0])) // productos borrados
+                .map(entry -> new TrendingProductResponse(entry[0], names.get(entry[0]), entry[1]))
+                .toList()));
+        rankings = published;
+    }
+
+    // Se escribe en un temporal y se renombra para no dejar nunca un fichero a medias
+    @Scheduled(initialDelayString = "${francode.app.trending.snapshot-interval-ms}",
+            fixedDelayString = "${francode.app.trending.snapshot-interval-ms}")
+    @PreDestroy
+    public void snapshot() {
+        try {
+            Path directory = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "tendencias", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(depth);
+                out.writeInt(width);
+                for (Window window : windows.values()) {
+                    synchronized (window) {
+                        window.writeTo(out);
+                    }
+                }
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("No se pudo guardar la instantánea de tendencias en {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private void apply(LocalDateTime orderDate, List<OrderSalesSnapshot.Line> lines, int sign) {
+        long time = orderDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long now = System.currentTimeMillis();
+        for (Window window : windows.values()) {
+            synchronized (window) {
+                window.add(time, now, lines, sign);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private static ETrendingWindow parseWindow(String window) {
+        if (!StringUtils.hasText(window)) {
+            return ETrendingWindow.DAY;
+        }
+        try {
+            return ETrendingWindow.valueOf(window.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Ventana inválida: " + window + " (hour, day o week)");
+        }
+    }
+
+    private static String key(ETrendingWindow window, long scope) {
+        return window.name() + ":" + scope;
+    }
+
+    // Clave del sketch: el mismo producto cuenta por separado en el ámbito global y en el de su categoría
+    private static long sketchKey(long scope, long productId) {
+        return scope * 0x9e3779b97f4a7c15L ^ productId;
+    }
+
+    // Sin sincronización propia: todos los accesos se hacen con el monitor de la ventana
+    private static final class Window {
+
+        private final long bucketMillis;
+        private final int bucketCount;
+        private final CountMinSketch[] buckets;
+        private final long[] bucketEpochs;
+        private final CountMinSketch total;
+        private final int capacity;
+        private final Map<Long, Candidates> candidates = new HashMap<>();
+
+        Window(Duration bucket, int bucketCount, int depth, int width, int capacity) {
+            this.bucketMillis = bucket.toMillis();
+            this.bucketCount = bucketCount;
+            this.buckets = new CountMinSketch[bucketCount];
+            this.bucketEpochs = new long[bucketCount];
+            for (int slot = 0; slot < bucketCount; slot++) {
+                buckets[slot] = new CountMinSketch(depth, width);
+                bucketEpochs[slot] = -1;
+            }
+            this.total = new CountMinSketch(depth, width);
+            this.capacity = capacity;
+        }
+
+        void add(long time, long now, List<OrderSalesSnapshot.Line> lines, int sign) {
+            long epoch = time / bucketMillis;
+            long currentEpoch = now / bucketMillis;
+            if (epoch > currentEpoch || epoch <= currentEpoch - bucketCount) {
+                return; // fuera de la ventana
+            }
+            int slot = (int) (epoch % bucketCount);
+            if (bucketEpochs[slot] != epoch) {
+                if (sign < 0) {
+                    return; // la venta ya salió de la ventana: no hay nada que restar
+                }
+                expire(slot);
+                bucketEpochs[slot] = epoch;
+            }
+            for (OrderSalesSnapshot.Line line : lines) {
+                long delta = (long) sign * line.quantity();
+                for (long scope : new long[]{GLOBAL_SCOPE, line.categoryId()}) {
+                    long key = sketchKey(scope, line.productId());
+                    buckets[slot].add(key, delta);
+                    total.add(key, delta);
+                    if (sign > 0) {
+                        candidates.computeIfAbsent(scope, id -> new Candidates(capacity))
+                                .offer(line.productId(), total.estimate(key));
+                    }
+                }
+            }
+        }
+
+        // Top "limit" de cada ámbito como pares {productId, unidades}
+        Map<Long, List<long[]>> rank(long now, int limit) {
+            long currentEpoch = now / bucketMillis;
+            for (int slot = 0; slot < bucketCount; slot++) {
+                if (bucketEpochs[slot] != -1 && bucketEpochs[slot] <= currentEpoch - bucketCount) {
+                    expire(slot);
+                }
+            }
+
+            Map<Long, List<long[]>> ranked = new HashMap<>();
+            Iterator<Map.Entry<Long, Candidates>> scopes = candidates.entrySet().iterator();
+            while (scopes.hasNext()) {
+                Map.Entry<Long, Candidates> scope = scopes.next();
+                List<long[]> ranking = scope.getValue().reestimate(productId -> total.estimate(sketchKey(scope.getKey(), productId)));
+                if (ranking.isEmpty()) {
+                    scopes.remove();
+                } else {
+                    ranked.put(scope.getKey(), ranking.size() > limit ? ranking.subList(0, limit) : ranking);
+                }
+            }
+            return ranked;
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.writeLong(bucketMillis);
+            out.writeInt(bucketCount);
+            for (int slot = 0; slot < bucketCount; slot++) {
+                out.writeLong(bucketEpochs[slot]);
+                buckets[slot].writeTo(out);
+            }
+            out.writeInt(candidates.size());
+            for (Map.Entry<Long, Candidates> scope : candidates.entrySet()) {
+                out.writeLong(scope.getKey());
+                Set<Long> productIds = scope.getValue().productIds();
+                out.writeInt(productIds.size());
+                for (Long productId : productIds) {
+                    out.writeLong(productId);
+                }
+            }
+        }
+
+        void readFrom(DataInput in) throws IOException {
+            if (in.readLong() != bucketMillis || in.readInt() != bucketCount) {
+                throw new IOException("tramos distintos a los configurados");
+            }
+            total.clear();
+            for (int slot = 0; slot < bucketCount; slot++) {
+                bucketEpochs[slot] = in.readLong();
+                buckets[slot].readFrom(in);
+                total.merge(buckets[slot], 1);
+            }
+            candidates.clear();
+            int scopes = in.readInt();
+            for (int i = 0; i < scopes; i++) {
+                long scope = in.readLong();
+                Candidates scopeCandidates = new Candidates(capacity);
+                int size = in.readInt();
+                for (int j = 0; j < size; j++) {
+                    long productId = in.readLong();
+                    scopeCandidates.offer(productId, total.estimate(sketchKey(scope, productId)));
+                }
+                candidates.put(scope, scopeCandidates);
+            }
+        }
+
+        private void expire(int slot) {
+            if (bucketEpochs[slot] != -1) {
+                total.merge(buckets[slot], -1);
+                buckets[slot].clear();
+                bucketEpochs[slot] = -1;
+            }
+        }
+    }
+
+    // Montículo de mínimos acotado: con el cupo lleno, un producto entra solo si supera al peor candidato
+    private static final class Candidates {
+
+        private final int capacity;
+        private final PriorityQueue<long[]> heap = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[1]));
+        private final Map<Long, long[]> entries = new HashMap<>();
+
+        Candidates(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void offer(long productId, long estimate) {
+            long[] current = entries.get(productId);
+            if (current != null) {
+                heap.remove(current);
+            } else if (entries.size() >= capacity) {
+                if (heap.peek()[1] >= estimate) {
+                    return;
+                }
+                entries.remove(heap.poll()[0]);
+            }
+            long[] entry = {productId, estimate};
+            entries.put(productId, entry);
+            heap.add(entry);
+        }
+
+        // Recalcula las estimaciones (bajan al caducar tramos o con cancelaciones), descarta las vacías
+        // y devuelve los candidatos de mayor a menor
+        List<long[]> reestimate(LongUnaryOperator estimator) {
+            List<long[]> ranking = new ArrayList<>();
+            for (long[] entry : entries.values()) {
+                long estimate = estimator.applyAsLong(entry[0]);
+                if (estimate > 0) {
+                    ranking.add(new long[]{entry[0], estimate});
+                }
+            }
+            heap.clear();
+            entries.clear();
+            for (long[] entry : ranking) {
+                entries.put(entry[0], entry);
+                heap.add(entry);
+            }
+            ranking.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+            return ranking.stream().map(entry -> new long[]{entry[0], entry[1]}).toList();
+        }
+
+        Set<Long> productIds() {
+            return entries.keySet();
+        }
+    }
+}
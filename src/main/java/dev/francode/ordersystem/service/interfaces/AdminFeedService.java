@@ -0,0 +1,18 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import dev.francode.ordersystem.entity.Order;
+
+import java.util.Collection;
+
+public interface AdminFeedService {
+
+    String DESTINATION = "/topic/admin/orders";
+
+    // Altas y cambios de estado; se encolan al confirmar la transacción y se publican agrupados por ventana
+    void orderCreated(Order order);
+
+    void orderStatusChanged(Order order);
+
+    // Productos con stock modificado; al publicar se comprueba cuáles han cruzado el umbral de stock bajo
+    void stockChanged(Collection<Long> productIds);
+}
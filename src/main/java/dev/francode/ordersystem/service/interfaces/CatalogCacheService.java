@@ -0,0 +1,30 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public interface CatalogCacheService {
+
+    String PRODUCT_PREFIX = "producto:";
+    String PRODUCT_PAGE_PREFIX = "productos:";
+    String CATEGORY_PAGE_PREFIX = "categorias:";
+
+    // Lectura a través de la caché; productIds indica qué productos contiene la entrada
+    // para poder invalidarla con precisión cuando cambian sus imágenes. El stock lo pone el llamador en cada lectura
+    <T> T get(String key, TypeReference<T> type, Supplier<T> loader, Function<T, Collection<Long>> productIds);
+
+    // Imágenes: solo las entradas que contienen esos productos
+    void invalidateProducts(Collection<Long> productIds);
+
+    // Alta, baja o cambio de datos filtrables: la ficha y todas las páginas de productos
+    void invalidateProductListings(Collection<Long> productIds);
+
+    // Categorías: sus páginas y todo lo que muestra el nombre de categoría
+    void invalidateCategories();
+
+    Map<String, Object> getStats();
+}
@@ -2,6 +2,7 @@ package dev.francode.ordersystem.service.interfaces;
 
 import dev.francode.ordersystem.dto.category.CategoryRequest;
 import dev.francode.ordersystem.dto.category.CategoryResponse;
+import dev.francode.ordersystem.dto.common.ResourceVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -15,5 +16,7 @@ public interface CategoryService {
 
     CategoryResponse getCategoryById(Long categoryId);
 
+    ResourceVersion getCategoryVersion(Long categoryId);
+
     Page<CategoryResponse> getAllCategories(Pageable pageable);
 }
@@ -0,0 +1,25 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import dev.francode.ordersystem.dto.order.OrderRequest;
+import dev.francode.ordersystem.dto.order.OrderResponse;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    // Ejecuta la creación una sola vez por clave; los reintentos con el mismo cuerpo reciben la respuesta guardada
+    // y los que traen otro cuerpo fallan con IdempotencyConflictException (422)
+    OrderResponse execute(String scope, String idempotencyKey, OrderRequest request, Supplier<OrderResponse> action);
+
+    // Huella del cuerpo de la petición que se guarda junto a la clave
+    String fingerprint(OrderRequest request);
+
+    // Respuesta ya registrada para la clave (caché o Pedidos_Idempotencia), sin ejecutar nada;
+    // IdempotencyConflictException si se registró con otra huella
+    Optional<OrderResponse> findResponse(String scope, String idempotencyKey, String fingerprint);
+
+    // Registra la respuesta dentro de la transacción que creó el pedido (entrada asíncrona);
+    // si la transacción se revierte, la clave queda libre
+    void store(String scope, String idempotencyKey, String fingerprint, OrderResponse response);
+}
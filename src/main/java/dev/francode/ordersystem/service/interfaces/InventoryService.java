@@ -0,0 +1,22 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface InventoryService {
+
+    // Reserva todas las cantidades o ninguna; devuelve los IDs sin stock suficiente
+    List<Long> reserve(Map<Long, Integer> quantities);
+
+    // Devuelve stock de pedidos cancelados o líneas retiradas
+    void release(Map<Long, Integer> quantities);
+
+    // Stock real de los productos cuando no coincide con la columna Productos.stock
+    Map<Long, Integer> getStockOverrides(Collection<Long> productIds);
+
+    // Cambios administrativos del stock (alta, edición y baja de productos)
+    void resetStock(Long productId, Integer stock);
+
+    void removeProduct(Long productId);
+}
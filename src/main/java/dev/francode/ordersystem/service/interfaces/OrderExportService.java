@@ -0,0 +1,16 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import dev.francode.ordersystem.dto.order.OrderAdminFilter;
+import dev.francode.ordersystem.entity.enums.EExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface OrderExportService {
+
+    // Valida filtro y formato antes de escribir nada en la respuesta
+    EExportFormat prepareExport(OrderAdminFilter filter, String format);
+
+    // Escribe los pedidos con sus líneas a medida que se leen; la memoria no depende del número de pedidos
+    void exportOrders(OrderAdminFilter filter, EExportFormat format, OutputStream out) throws IOException;
+}
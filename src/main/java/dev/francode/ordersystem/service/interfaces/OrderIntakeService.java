@@ -0,0 +1,19 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import dev.francode.ordersystem.dto.order.OrderRequest;
+import dev.francode.ordersystem.dto.order.OrderTicketResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface OrderIntakeService {
+
+    // true cuando los controladores deben encolar en lugar de crear el pedido en la petición
+    boolean isAsync();
+
+    OrderTicketResponse submit(String scope, Long userId, OrderRequest orderRequest, String idempotencyKey);
+
+    OrderTicketResponse getTicket(String scope, String trackingId);
+
+    // Espera (sin bloquear el hilo de la petición) a que el pedido se resuelva o venza la espera
+    CompletableFuture<OrderTicketResponse> awaitTicket(String scope, String trackingId);
+}
@@ -1,11 +1,16 @@
 package dev.francode.ordersystem.service.interfaces;
 
+import dev.francode.ordersystem.dto.common.CursorPage;
+import dev.francode.ordersystem.dto.common.ResourceVersion;
 import dev.francode.ordersystem.dto.order.OrderAdminFilter;
 import dev.francode.ordersystem.dto.order.OrderFilter;
+import dev.francode.ordersystem.dto.order.OrderGroupItem;
+import dev.francode.ordersystem.dto.order.OrderGroupResult;
 import dev.francode.ordersystem.dto.order.OrderRequest;
 import dev.francode.ordersystem.dto.order.OrderResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -15,17 +20,27 @@ public interface OrderService {
 
     OrderResponse createOrderWithDefaultUser(OrderRequest orderRequest);
 
+    // Creación agrupada en una sola transacción; un pedido rechazado no invalida al resto
+    List<OrderGroupResult> createOrderGroup(List<OrderGroupItem> items);
+
     OrderResponse updateOrder(Long orderId, OrderRequest orderRequest, Long userId);
 
-    OrderResponse getOrderById(Long orderId, Long userId);
+    // admin sale del rol del usuario autenticado, sin volver a consultarlo
+    OrderResponse getOrderById(Long orderId, Long userId, boolean admin);
+
+    // Validadores HTTP del detalle, con la misma comprobación de acceso que getOrderById
+    ResourceVersion getOrderVersion(Long orderId, Long userId, boolean admin);
 
     // Listar pedidos del cliente autenticado con filtro y paginación
     Page<OrderResponse> getOrdersByUser(Long userId, OrderFilter filter, Pageable pageable);
 
-    // Listar pedidos (admin) con filtro y paginación
-    Page<OrderResponse> getOrders(OrderAdminFilter filter, org.springframework.data.domain.Pageable pageable);
+    // Listar pedidos (admin) con filtro y paginación; count = exact | estimate | none (Slice sin total)
+    Slice<OrderResponse> getOrders(OrderAdminFilter filter, Pageable pageable, String count);
+
+    // Listar pedidos (admin) por cursor (fecha, id), sin total
+    CursorPage<OrderResponse> getOrdersByCursor(OrderAdminFilter filter, String cursor, int size, String direction);
     // Acciones de estado
-    void cancelOrder(Long orderId, Long userId);
+    void cancelOrder(Long orderId, Long userId, boolean admin);
 
     void confirmOrder(Long orderId);
 
@@ -34,5 +49,8 @@ public interface OrderService {
     void deliverOrder(Long orderId);
 
     OrderResponse getOrderByIdPublic(Long orderId);
+
+    ResourceVersion getOrderVersionPublic(Long orderId);
+
     Page<OrderResponse> getDefaultUserOrders(OrderFilter filter, Pageable pageable);
 }
@@ -0,0 +1,16 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import dev.francode.ordersystem.entity.Order;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface OrderTrackingService {
+
+    // Flujo de un pedido: empieza con su estado actual y se cierra al entregarse o cancelarse
+    SseEmitter trackOrder(Long orderId, Long userId, boolean admin);
+
+    // Flujo con los cambios de estado de todos los pedidos del usuario
+    SseEmitter trackUserOrders(Long userId);
+
+    // Se emite al confirmar la transacción
+    void statusChanged(Order order);
+}
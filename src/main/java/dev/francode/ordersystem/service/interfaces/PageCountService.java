@@ -0,0 +1,27 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import dev.francode.ordersystem.entity.enums.ECountMode;
+
+import java.util.function.LongSupplier;
+
+public interface PageCountService {
+
+    String ORDERS = "pedidos";
+    String PRODUCTS = "productos";
+
+    // Ámbito propio de los listados de un cliente: los cambios en sus pedidos no invalidan los de los demás
+    static String customerOrders(Long userId) {
+        return ORDERS + ":u=" + userId;
+    }
+
+    // Modo pedido por el cliente ("exact", "estimate" o "none"); por defecto EXACT
+    ECountMode parseMode(String mode);
+
+    // Total del listado "scope" para un filtro normalizado. filterKey es el countKey() del filtro: los mismos
+    // criterios dan siempre la misma clave (sin distinguir mayúsculas ni ceros sobrantes) y "" significa sin filtro.
+    // EXACT se cachea por filtro; ESTIMATE usa las estadísticas de la tabla cuando no hay filtro.
+    long count(String scope, String filterKey, ECountMode mode, LongSupplier exactCount);
+
+    // Descarta los totales cacheados de los ámbitos, ahora y otra vez al confirmarse la transacción actual
+    void invalidate(String... scopes);
+}
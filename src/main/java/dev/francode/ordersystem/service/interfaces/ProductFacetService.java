@@ -0,0 +1,19 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import dev.francode.ordersystem.dto.product.ProductFacetsResponse;
+import dev.francode.ordersystem.dto.product.ProductFilter;
+import dev.francode.ordersystem.entity.Product;
+
+public interface ProductFacetService {
+
+    // Recuentos por categoría, marca y rango de precio en una sola pasada sobre la instantánea
+    ProductFacetsResponse getFacets(ProductFilter filter);
+
+    // Altas y cambios se aplican al confirmar la transacción
+    void index(Product product);
+
+    void remove(Long productId);
+
+    // El nombre de la categoría vive en la instantánea junto a su código
+    void renameCategory(Long categoryId, String name);
+}
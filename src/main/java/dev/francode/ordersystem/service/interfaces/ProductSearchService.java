@@ -0,0 +1,19 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import dev.francode.ordersystem.dto.product.ProductFilter;
+import dev.francode.ordersystem.entity.Product;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductSearchService {
+
+    // IDs que cumplen el filtro, ordenados por relevancia; vacío si el índice no puede responder
+    // (sin término de búsqueda, índice desactivado o aún sin cargar) y hay que ir a la BD
+    Optional<List<Long>> search(ProductFilter filter);
+
+    // Altas y cambios se aplican al confirmar la transacción
+    void index(Product product);
+
+    void remove(Long productId);
+}
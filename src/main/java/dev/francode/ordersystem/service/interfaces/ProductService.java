@@ -1,10 +1,13 @@
 package dev.francode.ordersystem.service.interfaces;
 
+import dev.francode.ordersystem.dto.common.CursorPage;
+import dev.francode.ordersystem.dto.common.ResourceVersion;
 import dev.francode.ordersystem.dto.product.ProductFilter;
 import dev.francode.ordersystem.dto.product.ProductRequest;
 import dev.francode.ordersystem.dto.product.ProductResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface ProductService {
 
@@ -16,5 +19,12 @@ public interface ProductService {
 
     ProductResponse getProductById(Long productId);
 
-    Page<ProductResponse> getProducts(ProductFilter filter, Pageable pageable);
+    // ETag del detalle (incluye el stock vigente) para responder 304 sin cargar el producto
+    ResourceVersion getProductVersion(Long productId);
+
+    // count = exact | estimate | none (Slice sin total)
+    Slice<ProductResponse> getProducts(ProductFilter filter, Pageable pageable, String count);
+
+    // Catálogo por cursor (precio, id), sin total
+    CursorPage<ProductResponse> getProductsByCursor(ProductFilter filter, String cursor, int size, String direction);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import dev.francode.ordersystem.dto.report.*;
+import dev.francode.ordersystem.entity.Order;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesReportService {
+
+    // Aporte actual del pedido; se toma antes de modificarlo para poder restarlo después
+    OrderSalesSnapshot snapshot(Order order);
+
+    // Aplica "after - before" a los resúmenes dentro de la transacción en curso (before null = pedido nuevo)
+    void recordChange(OrderSalesSnapshot before, OrderSalesSnapshot after);
+
+    List<DailySalesResponse> getDailySales(SalesReportFilter filter);
+
+    List<ProductSalesResponse> getProductSales(SalesReportFilter filter, int limit);
+
+    List<CategorySalesResponse> getCategorySales(SalesReportFilter filter);
+
+    // Recalcula los resúmenes de [from, to] desde Pedidos, por tramos de días en paralelo
+    SalesRebuildResponse rebuild(LocalDate from, LocalDate to);
+}
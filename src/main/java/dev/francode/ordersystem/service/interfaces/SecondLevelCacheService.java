@@ -0,0 +1,9 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import java.util.Map;
+
+public interface SecondLevelCacheService {
+
+    // Estadísticas globales y por región de la caché de segundo nivel de Hibernate
+    Map<String, Object> getStats();
+}
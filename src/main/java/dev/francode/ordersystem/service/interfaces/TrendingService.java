@@ -0,0 +1,18 @@
+package dev.francode.ordersystem.service.interfaces;
+
+import dev.francode.ordersystem.dto.product.TrendingProductResponse;
+import dev.francode.ordersystem.dto.report.OrderSalesSnapshot;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TrendingService {
+
+    // Ventas y cancelaciones se aplican al confirmar la transacción; orderDate ubica el tramo de la ventana
+    void recordSale(LocalDateTime orderDate, List<OrderSalesSnapshot.Line> lines);
+
+    void recordCancellation(LocalDateTime orderDate, List<OrderSalesSnapshot.Line> lines);
+
+    // window = hour | day | week; sin categoría, el ranking global
+    List<TrendingProductResponse> getTrending(String window, Long categoryId, int limit);
+}
@@ -0,0 +1,85 @@
+package dev.francode.ordersystem.service.spec;
+
+import dev.francode.ordersystem.exceptions.custom.ValidationException;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+// Cursor opaco para paginación por clave (seek): dirección, valor de la clave de orden y ID de la última fila.
+// Se combina con las Specification de filtro y evita OFFSET y COUNT.
+public record KeysetCursor(Sort.Direction direction, String value, Long id) {
+
+    public static final int MAX_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    public static KeysetCursor of(Sort.Direction direction, Object value, Long id) {
+        return new KeysetCursor(direction, value.toString(), id);
+    }
+
+    // null cuando no se envía cursor (primera página)
+    public static KeysetCursor decode(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 3);
+            return new KeysetCursor(Sort.Direction.fromString(parts[0]), parts[1], Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new ValidationException("Cursor de paginación inválido");
+        }
+    }
+
+    public static Sort.Direction direction(String direction, Sort.Direction defaultDirection) {
+        if (!StringUtils.hasText(direction)) {
+            return defaultDirection;
+        }
+        return Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new ValidationException("Dirección de orden inválida: " + direction));
+    }
+
+    public static int checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new ValidationException("El tamaño de página debe estar entre 1 y " + MAX_SIZE);
+        }
+        return size;
+    }
+
+    // Orden compatible con el cursor: la clave y el ID como desempate, en la misma dirección
+    public static Sort sort(Sort.Direction direction, String field) {
+        return Sort.by(direction, field).and(Sort.by(direction, "id"));
+    }
+
+    public String encode() {
+        String raw = direction.name() + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public <Y> Y value(Function<String, Y> parser) {
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new ValidationException("Cursor de paginación inválido");
+        }
+    }
+
+    // (campo, id) estrictamente después de la última fila devuelta
+    public <T, Y extends Comparable<? super Y>> Specification<T> after(String field, Y fieldValue) {
+        return (root, query, cb) -> {
+            Path<Y> path = root.get(field);
+            Path<Long> idPath = root.get("id");
+            if (direction.isAscending()) {
+                return cb.or(cb.greaterThan(path, fieldValue),
+                        cb.and(cb.equal(path, fieldValue), cb.greaterThan(idPath, id)));
+            }
+            return cb.or(cb.lessThan(path, fieldValue),
+                    cb.and(cb.equal(path, fieldValue), cb.lessThan(idPath, id)));
+        };
+    }
+}
@@ -6,17 +6,28 @@ import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.util.ArrayList;
+import java.util.Collection;
 
 public class ProductSpecifications {
 
     public static Specification<Product> filterBy(ProductFilter filter) {
+        return filterBy(filter, null);
+    }
+
+    // Con searchIds (resultado del índice de búsqueda) el término se resuelve por clave primaria en lugar de con LIKE
+    public static Specification<Product> filterBy(ProductFilter filter, Collection<Long> searchIds) {
         return (root, query, cb) -> {
             var predicates = new ArrayList<Predicate>();
 
-            if (filter.getSearch() != null && !filter.getSearch().trim().isEmpty()) {
-                predicates.add(
-                        cb.like(cb.lower(root.get("name")), "%" + filter.getSearch().trim().toLowerCase() + "%")
-                );
+            if (searchIds != null) {
+                predicates.add(searchIds.isEmpty() ? cb.disjunction() : root.get("id").in(searchIds));
+            } else if (filter.getSearch() != null && !filter.getSearch().trim().isEmpty()) {
+                String pattern = "%" + filter.getSearch().trim().toLowerCase() + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("name")), pattern),
+                        cb.like(cb.lower(root.get("brandName")), pattern),
+                        cb.like(cb.lower(root.get("description")), pattern)
+                ));
             }
 
             if (filter.getMinprice() != null) {
@@ -0,0 +1,153 @@
+package dev.francode.ordersystem.entity.base;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Filas por segundo al insertar las líneas de pedidos grandes con IDENTITY (lo anterior: un INSERT y un viaje
+// por fila) frente al generador de tabla pooled-lo de BaseEntity con lotes JDBC de 50 (lo actual).
+// Las dos entidades reproducen las columnas de Pedidos_Productos sin claves foráneas; la pooled usa la misma
+// tabla de secuencias y el mismo tamaño de bloque que BaseEntity. Cada operación confirma ROWS líneas.
+// Por defecto sobre H2 en memoria; con -Dbenchmark.jdbc-url (y -Dbenchmark.jdbc-user/-password) sobre un esquema
+// vacío, p. ej. MySQL con rewriteBatchedStatements=true en la URL. Se ejecuta igual que JwtVerificationBenchmark:
+//     java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main IdGeneratorInsertBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(IdGeneratorInsertBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGeneratorInsertBenchmark {
+
+    static final int ROWS = 500;
+
+    private HikariDataSource dataSource;
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getProperty("benchmark.jdbc-url", "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+        config.setUsername(System.getProperty("benchmark.jdbc-user"));
+        config.setPassword(System.getProperty("benchmark.jdbc-password"));
+        dataSource = new HikariDataSource(config);
+
+        // Los mismos ajustes de lotes que application.properties
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, 50)
+                .applySetting(AvailableSettings.ORDER_INSERTS, true)
+                .applySetting(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(IdentityOrderLine.class)
+                .addAnnotatedClass(PooledOrderLine.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+
+    // Tablas vacías en cada iteración, para no medir el crecimiento de los índices
+    @Setup(Level.Iteration)
+    public void clear() {
+        sessionFactory.inTransaction(session -> {
+            session.createMutationQuery("delete from IdentityOrderLine").executeUpdate();
+            session.createMutationQuery("delete from PooledOrderLine").executeUpdate();
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void identity() {
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < ROWS; i++) {
+                session.persist(fill(new IdentityOrderLine(), i));
+            }
+        });
+    }
+
+    @Benchmark
+    public void pooledLo() {
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < ROWS; i++) {
+                session.persist(fill(new PooledOrderLine(), i));
+            }
+        });
+    }
+
+    private static <T extends OrderLine> T fill(T line, int i) {
+        line.orderId = 1L;
+        line.productId = (long) i;
+        line.quantity = 1 + i % 5;
+        line.price = BigDecimal.valueOf(1999, 2);
+        line.subTotal = line.price.multiply(BigDecimal.valueOf(line.quantity));
+        return line;
+    }
+
+    @MappedSuperclass
+    public abstract static class OrderLine {
+
+        @Column(name = "id_pedido", nullable = false)
+        Long orderId;
+
+        @Column(name = "id_producto", nullable = false)
+        Long productId;
+
+        @Column(name = "cantidad", nullable = false)
+        Integer quantity;
+
+        @Column(name = "precio", nullable = false, precision = 10, scale = 2)
+        BigDecimal price;
+
+        @Column(name = "sub_total", nullable = false, precision = 10, scale = 2)
+        BigDecimal subTotal;
+    }
+
+    @Entity(name = "IdentityOrderLine")
+    @Table(name = "bench_lineas_identity")
+    public static class IdentityOrderLine extends OrderLine {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+    }
+
+    @Entity(name = "PooledOrderLine")
+    @Table(name = "bench_lineas_pooled")
+    public static class PooledOrderLine extends OrderLine {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.TABLE, generator = "pooled_ids")
+        @TableGenerator(name = "pooled_ids",
+                table = BaseEntity.ID_TABLE,
+                pkColumnName = BaseEntity.ID_SEGMENT_COLUMN,
+                valueColumnName = BaseEntity.ID_VALUE_COLUMN,
+                pkColumnValue = BaseEntity.ID_SEGMENT,
+                allocationSize = BaseEntity.ID_ALLOCATION_SIZE)
+        Long id;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IdGeneratorInsertBenchmark.class.getSimpleName()).build()).run();
+    }
+}
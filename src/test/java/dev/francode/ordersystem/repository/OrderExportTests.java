@@ -0,0 +1,274 @@
+package dev.francode.ordersystem.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.francode.ordersystem.dto.order.OrderAdminFilter;
+import dev.francode.ordersystem.entity.Category;
+import dev.francode.ordersystem.entity.Product;
+import dev.francode.ordersystem.entity.UserApp;
+import dev.francode.ordersystem.entity.enums.EExportFormat;
+import dev.francode.ordersystem.entity.enums.ERole;
+import dev.francode.ordersystem.service.impl.OrderExportServiceImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Exportación completa de un volumen grande de pedidos en H2: número de filas, formato CSV (una línea por fila,
+// campos entre comillas cuando hace falta) y NDJSON (un objeto por línea y por pedido). También que el volcado
+// no se acumula: una sola consulta sin entidades en el contexto y la salida llega por trozos del tamaño del
+// búfer a medida que se lee el cursor. El streaming del driver (fetch size Integer.MIN_VALUE) es de Connector/J
+// y H2 lo rechaza: aquí el cursor lee por lotes y no se mide la memoria del driver.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "francode.app.orders.export.fetch-size=1000"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderExportTests {
+
+    private static final int ORDERS = 50_000;
+    private static final int LINES_PER_ORDER = 2;
+    private static final int CSV_FIELDS = 11;
+    // Fuera del rango de la tabla de secuencias para no chocar con los IDs que reparte Hibernate
+    private static final long FIRST_ID = 1_000_000_000L;
+    // BufferedWriter de 64K caracteres; en UTF-8 cada uno ocupa como mucho 3 bytes
+    private static final int MAX_CHUNK = 3 * 64 * 1024;
+    // Nombre con coma y comillas: obliga al CSV a entrecomillar
+    private static final String QUOTED_NAME = "Café \"molido\", 1kg";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TransactionTemplate transaction;
+    private JdbcTemplate jdbc;
+    private OrderExportServiceImpl exportService;
+    private OrderAdminFilter filter;
+    private List<Long> productIds;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        jdbc = new JdbcTemplate(dataSource);
+        exportService = new OrderExportServiceImpl(orderRepository, objectMapper);
+
+        String suffix = String.valueOf(System.nanoTime());
+        productIds = new ArrayList<>();
+        Long userId = transaction.execute(status -> {
+            UserApp user = new UserApp();
+            user.setEmail("export" + suffix + "@correo.com");
+            user.setPassword("secreto");
+            user.setRol(ERole.CLIENTE);
+            entityManager.persist(user);
+
+            Category category = new Category();
+            category.setName("Exportación " + suffix);
+            entityManager.persist(category);
+
+            for (int i = 0; i < LINES_PER_ORDER; i++) {
+                Product product = new Product();
+                product.setName(i == 0 ? QUOTED_NAME + " " + suffix : "Producto " + suffix + " " + i);
+                product.setPrice(BigDecimal.TEN);
+                product.setStock(100);
+                product.setBrandName("Marca");
+                product.setCategory(category);
+                entityManager.persist(product);
+                productIds.add(product.getId());
+            }
+            return user.getId();
+        });
+
+        // Los pedidos y sus líneas se generan en la BD: persistir cien mil entidades llevaría minutos
+        jdbc.update("""
+                INSERT INTO pedidos (id, id_usuario, monto_total, fecha, estado)
+                SELECT ? + X, ?, 20.00, DATEADD('SECOND', -X, CURRENT_TIMESTAMP), 'PENDIENTE'
+                FROM SYSTEM_RANGE(0, ?)""", FIRST_ID, userId, ORDERS - 1);
+        for (int i = 0; i < LINES_PER_ORDER; i++) {
+            jdbc.update("""
+                    INSERT INTO pedidos_productos (id, id_pedido, id_producto, cantidad, precio, sub_total)
+                    SELECT ? + X * ? + ?, ? + X, ?, 1, 10.00, 10.00
+                    FROM SYSTEM_RANGE(0, ?)""", FIRST_ID, LINES_PER_ORDER, i, FIRST_ID, productIds.get(i), ORDERS - 1);
+        }
+
+        filter = new OrderAdminFilter();
+        filter.setUserId(userId);
+        statistics().clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Los pedidos quedan confirmados: cada prueba genera los suyos
+        jdbc.update("DELETE FROM pedidos_productos WHERE id_pedido >= ?", FIRST_ID);
+        jdbc.update("DELETE FROM pedidos WHERE id >= ?", FIRST_ID);
+    }
+
+    @Test
+    void csvHasHeaderAndOneQuotedLinePerOrderLine() throws IOException {
+        ChunkCountingStream out = export(EExportFormat.CSV);
+
+        long lines = 0;
+        long quoted = 0;
+        try (BufferedReader reader = out.reader()) {
+            assertThat(reader.readLine()).startsWith("pedido,fecha,estado,total");
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<String> fields = csvFields(line);
+                assertThat(fields).hasSize(CSV_FIELDS);
+                if (fields.get(7).startsWith(QUOTED_NAME)) {
+                    quoted++;
+                }
+                lines++;
+            }
+        }
+
+        assertThat(lines).isEqualTo((long) ORDERS * LINES_PER_ORDER);
+        assertThat(quoted).isEqualTo(ORDERS);
+        assertStreamed(out);
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerLineAndOrder() throws IOException {
+        ChunkCountingStream out = export(EExportFormat.NDJSON);
+
+        long orders = 0;
+        long lines = 0;
+        long previousId = Long.MIN_VALUE;
+        try (BufferedReader reader = out.reader()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode order = objectMapper.readTree(line);
+                assertThat(order.get("id").asLong()).isGreaterThan(previousId);
+                assertThat(order.get("lines")).hasSize(LINES_PER_ORDER);
+                assertThat(order.get("lines").get(0).get("productName").asText()).startsWith(QUOTED_NAME);
+                previousId = order.get("id").asLong();
+                lines += order.get("lines").size();
+                orders++;
+            }
+        }
+
+        assertThat(orders).isEqualTo(ORDERS);
+        assertThat(lines).isEqualTo((long) ORDERS * LINES_PER_ORDER);
+        assertStreamed(out);
+    }
+
+    // El transaccional de solo lectura del servicio, como lo abre el proxy en la aplicación
+    private ChunkCountingStream export(EExportFormat format) {
+        ChunkCountingStream out = new ChunkCountingStream();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try {
+                exportService.exportOrders(filter, format, out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return out;
+    }
+
+    // Una consulta y ninguna entidad cargada; la salida sale por trozos acotados, no de una vez al final
+    private void assertStreamed(ChunkCountingStream out) {
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics().getEntityLoadCount()).isZero();
+        assertThat(out.largestChunk).isLessThanOrEqualTo(MAX_CHUNK);
+        assertThat(out.chunks).isGreaterThan(out.size() / MAX_CHUNK);
+    }
+
+    // Campos de una línea CSV según RFC 4180 (comillas dobladas dentro de un campo entrecomillado)
+    private static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    inQuotes = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Guarda lo escrito para comprobar el formato y cuenta cuántas escrituras llegan y de qué tamaño
+    private static final class ChunkCountingStream extends OutputStream {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private long chunks;
+        private int largestChunk;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes.write(b, off, len);
+            chunks++;
+            largestChunk = Math.max(largestChunk, len);
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        BufferedReader reader() {
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes.toByteArray()), StandardCharsets.UTF_8));
+        }
+    }
+}
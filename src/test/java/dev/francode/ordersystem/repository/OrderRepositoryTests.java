@@ -0,0 +1,158 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.dto.order.OrderAdminFilter;
+import dev.francode.ordersystem.entity.*;
+import dev.francode.ordersystem.entity.enums.ERole;
+import dev.francode.ordersystem.entity.enums.EStatusOrder;
+import dev.francode.ordersystem.service.spec.KeysetCursor;
+import dev.francode.ordersystem.service.spec.OrderSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderRepositoryTests {
+
+    private static final int ORDERS = 30;
+    private static final int LINES_PER_ORDER = 3;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("Bebidas");
+        entityManager.persist(category);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < LINES_PER_ORDER; i++) {
+            Product product = new Product();
+            product.setName("Producto " + i);
+            product.setPrice(BigDecimal.TEN);
+            product.setStock(100);
+            product.setBrandName("Marca");
+            product.setCategory(category);
+            entityManager.persist(product);
+            products.add(product);
+        }
+
+        for (int u = 0; u < 3; u++) {
+            UserApp user = new UserApp();
+            user.setEmail("cliente" + u + "@correo.com");
+            user.setPassword("secreto");
+            user.setRol(ERole.CLIENTE);
+            entityManager.persist(user);
+
+            for (int o = 0; o < ORDERS / 3; o++) {
+                Order order = new Order();
+                order.setUser(user);
+                order.setTotal(BigDecimal.valueOf(30));
+                order.setDate(LocalDateTime.now().minusMinutes(o));
+                order.setStatus(EStatusOrder.PENDIENTE);
+                entityManager.persist(order);
+
+                for (Product product : products) {
+                    OrderDetails line = new OrderDetails();
+                    line.setOrder(order);
+                    line.setProduct(product);
+                    line.setQuantity(1);
+                    line.setPrice(BigDecimal.TEN);
+                    line.setSubTotal(BigDecimal.TEN);
+                    entityManager.persist(line);
+                }
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+    }
+
+    @Test
+    void pagedListingUsesFixedNumberOfQueries() {
+        PageRequest pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "date"));
+
+        Page<Long> ids = orderRepository.findIds(OrderSpecifications.forAdminFilter(new OrderAdminFilter()), pageable);
+        List<Order> orders = orderRepository.findAllWithDetailsByIdIn(ids.getContent());
+
+        // Recorre todo lo que usa OrderMapper: no debe disparar cargas perezosas
+        orders.forEach(order -> {
+            order.getUser().getEmail();
+            order.getOrderDetails().forEach(line -> line.getProduct().getName());
+        });
+
+        assertThat(ids.getTotalElements()).isEqualTo(ORDERS);
+        assertThat(orders).hasSize(20);
+        assertThat(orders).allSatisfy(order -> assertThat(order.getOrderDetails()).hasSize(LINES_PER_ORDER));
+        // IDs + COUNT + pedidos con sus joins
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void lastPageSkipsCountQuery() {
+        PageRequest pageable = PageRequest.of(1, 20);
+
+        Page<Long> ids = orderRepository.findIds(OrderSpecifications.forAdminFilter(new OrderAdminFilter()), pageable);
+        orderRepository.findAllWithDetailsByIdIn(ids.getContent());
+
+        assertThat(ids.getContent()).hasSize(ORDERS - 20);
+        assertThat(ids.getTotalElements()).isEqualTo(ORDERS);
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void keysetWalkVisitsEveryOrderOnceWithoutCount() {
+        Sort sort = KeysetCursor.sort(Sort.Direction.DESC, "date");
+        Specification<Order> filter = OrderSpecifications.forAdminFilter(new OrderAdminFilter());
+
+        Set<Long> visited = new LinkedHashSet<>();
+        KeysetCursor cursor = null;
+        while (true) {
+            Specification<Order> spec = cursor == null
+                    ? filter
+                    : filter.and(cursor.after("date", cursor.value(LocalDateTime::parse)));
+            List<Long> ids = orderRepository.findIds(spec, sort, 7);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Order last = orderRepository.findById(ids.get(ids.size() - 1)).orElseThrow();
+            cursor = KeysetCursor.decode(KeysetCursor.of(Sort.Direction.DESC, last.getDate(), last.getId()).encode());
+            ids.forEach(id -> assertThat(visited.add(id)).isTrue());
+        }
+
+        assertThat(visited).hasSize(ORDERS);
+        assertThat(statistics().getPrepareStatementCount()).isLessThanOrEqualTo(2L * (ORDERS / 7 + 2));
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,116 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.entity.Category;
+import dev.francode.ordersystem.entity.Product;
+import dev.francode.ordersystem.service.impl.DatabaseInventoryServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Carga concurrente sobre el inventario por fragmentos: carritos con los mismos productos en distinto orden,
+// productos calientes agotándose (reequilibrios) y devoluciones. No debe haber bloqueos mutuos ni stock perdido.
+// El rendimiento con y sin fragmentos se mide aparte, en HotProductStockBenchmark.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.hikari.maximum-pool-size=16"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductStockConcurrencyTests {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 200;
+    private static final int HOT_PRODUCTS = 2;
+    private static final int REGULAR_PRODUCTS = 3;
+    private static final int HOT_SHARDS = 4;
+    private static final int INITIAL_STOCK = 600;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentCheckoutsKeepStockConsistent() throws Exception {
+        List<Long> productIds = createProducts();
+        Set<Long> hot = Set.copyOf(productIds.subList(0, HOT_PRODUCTS));
+        DatabaseInventoryServiceImpl inventory = new DatabaseInventoryServiceImpl(productRepository, hot, HOT_SHARDS);
+        inventory.createShards();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Map<Long, AtomicInteger> sold = new ConcurrentHashMap<>();
+        productIds.forEach(productId -> sold.put(productId, new AtomicInteger()));
+        AtomicInteger accepted = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                Random random = new Random();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    List<Long> cart = new ArrayList<>(productIds);
+                    Collections.shuffle(cart, random);
+                    Map<Long, Integer> quantities = new LinkedHashMap<>();
+                    cart.subList(0, 1 + random.nextInt(cart.size()))
+                            .forEach(productId -> quantities.put(productId, 1 + random.nextInt(3)));
+
+                    boolean reserved = transaction.execute(status -> inventory.reserve(quantities).isEmpty());
+                    if (!reserved) {
+                        continue;
+                    }
+                    accepted.incrementAndGet();
+                    // Uno de cada cuatro pedidos se cancela y devuelve su stock
+                    if (random.nextInt(4) == 0) {
+                        transaction.executeWithoutResult(status -> inventory.release(quantities));
+                    } else {
+                        quantities.forEach((productId, quantity) -> sold.get(productId).addAndGet(quantity));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        Map<Long, Integer> stock = productRepository.findStock(productIds);
+        for (Long productId : productIds) {
+            assertThat(stock.get(productId)).isEqualTo(INITIAL_STOCK - sold.get(productId).get());
+            assertThat(stock.get(productId)).isGreaterThanOrEqualTo(0);
+        }
+        assertThat(accepted.get()).isPositive();
+    }
+
+    private List<Long> createProducts() {
+        Category category = new Category();
+        category.setName("Concurrencia");
+        category = categoryRepository.save(category);
+
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < HOT_PRODUCTS + REGULAR_PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Producto concurrente " + i);
+            product.setPrice(BigDecimal.TEN);
+            product.setStock(INITIAL_STOCK);
+            product.setBrandName("Marca");
+            product.setCategory(category);
+            productIds.add(productRepository.save(product).getId());
+        }
+        return productIds;
+    }
+}
@@ -0,0 +1,146 @@
+package dev.francode.ordersystem.repository;
+
+import dev.francode.ordersystem.entity.Category;
+import dev.francode.ordersystem.entity.Image;
+import dev.francode.ordersystem.entity.Product;
+import dev.francode.ordersystem.entity.UserApp;
+import dev.francode.ordersystem.entity.enums.ERole;
+import dev.francode.ordersystem.service.auth.UserDetailsServiceImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sentencias SQL por petición en los caminos que cubre la caché de segundo nivel, con la caché activa y
+// desactivada para la sesión (CacheMode.IGNORE). Cada petición es una transacción con su propio contexto
+// de persistencia, como en la aplicación; los datos se confirman para que la caché pueda guardarlos.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTests {
+
+    private static final int REQUESTS = 20;
+    private static final int IMAGES = 3;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private String email;
+    private Long categoryId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        String suffix = String.valueOf(System.nanoTime());
+        transaction.executeWithoutResult(status -> {
+            UserApp user = new UserApp();
+            user.setEmail("cache" + suffix + "@correo.com");
+            user.setPassword("secreto");
+            user.setRol(ERole.CLIENTE);
+            entityManager.persist(user);
+            email = user.getEmail();
+
+            Category category = new Category();
+            category.setName("Categoría " + suffix);
+            entityManager.persist(category);
+            categoryId = category.getId();
+
+            Product product = new Product();
+            product.setName("Producto " + suffix);
+            product.setPrice(BigDecimal.TEN);
+            product.setStock(10);
+            product.setBrandName("Marca");
+            product.setCategory(category);
+            List<Image> images = new ArrayList<>();
+            for (int i = 0; i < IMAGES; i++) {
+                Image image = new Image();
+                image.setUrl("https://img/" + suffix + "/" + i);
+                image.setProduct(product);
+                images.add(image);
+            }
+            product.setImages(images);
+            entityManager.persist(product);
+            productId = product.getId();
+        });
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void loadUserByUsername() {
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl(userRepository);
+        Runnable request = () -> assertThat(userDetailsService.loadUserByUsername(email).getUsername()).isEqualTo(email);
+
+        // Sin caché, la resolución del correo por natural id; con ella, ninguna
+        assertThat(statements(CacheMode.IGNORE, request)).isEqualTo(REQUESTS);
+        assertThat(statements(CacheMode.NORMAL, request)).isZero();
+    }
+
+    @Test
+    void catalogReadsOfCategoryAndImages() {
+        Runnable request = () -> {
+            assertThat(categoryRepository.findById(categoryId).orElseThrow().getName()).startsWith("Categoría");
+            Product product = productRepository.findById(productId).orElseThrow();
+            assertThat(product.getImages()).hasSize(IMAGES).allSatisfy(image -> assertThat(image.getUrl()).isNotNull());
+        };
+
+        // Sin caché: categoría, producto e imágenes. Con ella solo el producto, que no se cachea (stock por JDBC)
+        assertThat(statements(CacheMode.IGNORE, request)).isEqualTo(3L * REQUESTS);
+        assertThat(statements(CacheMode.NORMAL, request)).isEqualTo(REQUESTS);
+    }
+
+    // Una petición para calentar la caché y después REQUESTS medidas. CacheMode.IGNORE y los modos JPA
+    // equivalentes: find() atiende a los segundos
+    private long statements(CacheMode cacheMode, Runnable request) {
+        Runnable inTransaction = () -> transaction.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setCacheMode(cacheMode);
+            entityManager.setProperty("jakarta.persistence.cache.retrieveMode", cacheMode.getJpaRetrieveMode());
+            entityManager.setProperty("jakarta.persistence.cache.storeMode", cacheMode.getJpaStoreMode());
+            request.run();
+        });
+        inTransaction.run();
+        statistics().clear();
+        for (int i = 0; i < REQUESTS; i++) {
+            inTransaction.run();
+        }
+        return statistics().getPrepareStatementCount();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
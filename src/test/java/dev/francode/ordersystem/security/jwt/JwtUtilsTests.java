@@ -0,0 +1,59 @@
+package dev.francode.ordersystem.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilsTests {
+
+    static final String SECRET = "clave-de-pruebas-para-firmar-tokens-hs512-con-al-menos-sesenta-y-cuatro-bytes";
+
+    @Test
+    void repeatedTokenReturnsCachedClaims() {
+        JwtUtils jwtUtils = jwtUtils(60_000);
+        String token = jwtUtils.generateAccessToken("cliente@correo.com", "CLIENTE", 7L);
+
+        Claims first = jwtUtils.verifyJwtToken(token);
+
+        assertThat(jwtUtils.verifyJwtToken(token)).isSameAs(first);
+        assertThat(first.getSubject()).isEqualTo("cliente@correo.com");
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceExpired() throws InterruptedException {
+        JwtUtils jwtUtils = jwtUtils(1_500);
+        String token = jwtUtils.generateAccessToken("cliente@correo.com", "CLIENTE", 7L);
+        Claims claims = jwtUtils.verifyJwtToken(token);
+
+        // exp va en segundos; se espera a que pase con margen
+        Thread.sleep(Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()) + 200);
+
+        assertThatThrownBy(() -> jwtUtils.verifyJwtToken(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenIfOriginalIsCached() {
+        JwtUtils jwtUtils = jwtUtils(60_000);
+        String token = jwtUtils.generateAccessToken("cliente@correo.com", "CLIENTE", 7L);
+        jwtUtils.verifyJwtToken(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtUtils.verifyJwtToken(tampered)).isInstanceOf(SignatureException.class);
+    }
+
+    static JwtUtils jwtUtils(int expirationMs) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(jwtUtils, "jwtRefreshExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxEntries", 1_000L);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
@@ -0,0 +1,63 @@
+package dev.francode.ordersystem.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Coste de autenticar una petición con un token ya visto: verificación con caché frente a parser nuevo por
+// petición (lo que hacía el filtro antes) y frente al parser compartido sin caché.
+// Se ejecuta con main() desde el IDE o, tras mvn test-compile y
+// mvn dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=cp.txt, con:
+//     java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main JwtVerificationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private JwtUtils jwtUtils;
+    private JwtParser sharedParser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = JwtUtilsTests.jwtUtils(3_600_000);
+        sharedParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(JwtUtilsTests.SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        token = jwtUtils.generateAccessToken("cliente@correo.com", "CLIENTE", 7L);
+    }
+
+    @Benchmark
+    public Claims cachedVerification() {
+        return jwtUtils.verifyJwtToken(token);
+    }
+
+    @Benchmark
+    public Claims sharedParser() {
+        return sharedParser.parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims parserPerRequest() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(JwtUtilsTests.SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
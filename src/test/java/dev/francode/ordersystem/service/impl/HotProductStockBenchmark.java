@@ -0,0 +1,108 @@
+package dev.francode.ordersystem.service.impl;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import dev.francode.ordersystem.repository.ProductRepository;
+import dev.francode.ordersystem.repository.ProductStockRepository;
+import dev.francode.ordersystem.repository.ProductStockRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Pedidos por segundo sobre un único producto muy vendido, con el modo de fragmentos activado (hot = true)
+// y desactivado. Cada operación es un pedido de una unidad en su propia transacción, como en createOrder.
+// Por defecto corre sobre H2 en memoria, donde el commit no cuesta nada y la fila única apenas se disputa
+// (en H2 sale por delante el modo sin fragmentos).
+// La contención que resuelven los fragmentos es la de InnoDB, con el bloqueo de la fila retenido hasta un
+// commit que escribe en disco: para medirla, apuntar a un esquema MySQL vacío (se recrean las dos tablas):
+//     -Dbenchmark.jdbc-url=jdbc:mysql://localhost:3306/bench -Dbenchmark.jdbc-user=... -Dbenchmark.jdbc-password=...
+// Se ejecuta igual que JwtVerificationBenchmark:
+//     java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main HotProductStockBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class HotProductStockBenchmark {
+
+    private static final long PRODUCT_ID = 1L;
+    private static final Map<Long, Integer> ORDER = Map.of(PRODUCT_ID, 1);
+
+    @Param({"false", "true"})
+    private boolean hot;
+
+    @Param({"8"})
+    private int shards;
+
+    private HikariDataSource dataSource;
+    private DatabaseInventoryServiceImpl inventory;
+    private TransactionTemplate transaction;
+
+    @Setup
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getProperty("benchmark.jdbc-url", "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+        config.setUsername(System.getProperty("benchmark.jdbc-user"));
+        config.setPassword(System.getProperty("benchmark.jdbc-password"));
+        config.setMaximumPoolSize(16);
+        dataSource = new HikariDataSource(config);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS productos_stock_fragmentos");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS productos");
+        jdbcTemplate.execute("CREATE TABLE productos (id BIGINT PRIMARY KEY, stock INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE productos_stock_fragmentos (id_producto BIGINT NOT NULL, "
+                + "fragmento INT NOT NULL, stock INT NOT NULL, PRIMARY KEY (id_producto, fragmento))");
+        jdbcTemplate.update("INSERT INTO productos (id, stock) VALUES (?, ?)", PRODUCT_ID, Integer.MAX_VALUE / 2);
+
+        inventory = new DatabaseInventoryServiceImpl(stockRepository(jdbcTemplate),
+                hot ? Set.of(PRODUCT_ID) : Set.of(), shards);
+        inventory.createShards();
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<Long> order() {
+        return transaction.execute(status -> inventory.reserve(ORDER));
+    }
+
+    // El inventario solo usa la parte JDBC de ProductRepository: se sirve sin levantar JPA
+    private static ProductRepository stockRepository(JdbcTemplate jdbcTemplate) {
+        ProductStockRepository stock = new ProductStockRepositoryImpl(jdbcTemplate);
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() != ProductStockRepository.class) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    try {
+                        return method.invoke(stock, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HotProductStockBenchmark.class.getSimpleName()).build()).run();
+    }
+}